@@ -10,14 +10,26 @@ import android.widget.Button;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import clarkson.ee408.tictactoev4.client.UserCache;
 import clarkson.ee408.tictactoev4.model.User;
 
 public class AvailableUsersAdapter extends RecyclerView.Adapter<AvailableUsersAdapter.UserViewHolder> {
 
+    /**
+     * The most users kept in memory, more than that has to be narrowed down with a search
+     */
+    public static final int MAX_USERS = 500;
+
     private final UserClickListener mUserClickListener;
     private List<User> users;
+    private List<String> labels;
     private final Context mContext;
 
     /**
@@ -36,15 +48,21 @@ public class AvailableUsersAdapter extends RecyclerView.Adapter<AvailableUsersAd
         View view = LayoutInflater.from(mContext)
                 .inflate(R.layout.view_holder_user, parent, false);
 
-        return new UserViewHolder(view);
+        UserViewHolder holder = new UserViewHolder(view);
+        // One listener per view holder instead of one per bind
+        holder.userButton.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                mUserClickListener.onUserClicked(users.get(position));
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
-        User user = users.get(position);
-
-        holder.userButton.setText(String.format("%s (%s)", user.getDisplayName(), user.getUsername()));
-        holder.userButton.setOnClickListener(view -> mUserClickListener.onUserClicked(user));
+        // Labels are rendered once in setUsers(), binding doesn't allocate
+        holder.userButton.setText(labels.get(position));
     }
 
     @Override
@@ -61,10 +79,92 @@ public class AvailableUsersAdapter extends RecyclerView.Adapter<AvailableUsersAd
      */
     @SuppressLint("NotifyDataSetChanged")
     public void setUsers(List<User> users) {
-        this.users = users;
+        this.users = new ArrayList<>();
+        this.labels = new ArrayList<>();
+        append(users);
         notifyDataSetChanged();
     }
 
+    /**
+     * Append the next page of users and update the recyclerview
+     * @param page list of User
+     */
+    public void addUsers(List<User> page) {
+        int start = getItemCount();
+        append(page);
+        notifyItemRangeInserted(start, getItemCount() - start);
+    }
+
+    /**
+     * Apply a roster delta in place: removed users disappear, changed users are rebound and new users are appended
+     * @param changed users that joined or changed since the last version
+     * @param removed usernames that left since the last version
+     * @param appendNew whether users not in the list yet are appended, false while more pages remain to be loaded
+     *                  (they show up in their page then)
+     */
+    public void applyDelta(List<User> changed, List<String> removed, boolean appendNew) {
+        if (this.users == null) {
+            this.users = new ArrayList<>();
+            this.labels = new ArrayList<>();
+        }
+
+        UserCache cache = UserCache.getInstance();
+        cache.forget(removed);
+        if (removed != null && !removed.isEmpty()) {
+            Set<String> gone = new HashSet<>(removed);
+            // Backwards, so the positions still to visit don't move
+            for (int i = this.users.size() - 1; i >= 0; i--) {
+                if (gone.contains(this.users.get(i).getUsername())) {
+                    this.users.remove(i);
+                    this.labels.remove(i);
+                    notifyItemRemoved(i);
+                }
+            }
+        }
+
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < this.users.size(); i++) {
+            positions.put(this.users.get(i).getUsername(), i);
+        }
+
+        List<User> added = new ArrayList<>();
+        for (User user : cache.resolve(changed)) {
+            Integer position = positions.get(user.getUsername());
+            if (position != null) {
+                this.users.set(position, user);
+                this.labels.set(position, cache.getLabel(user));
+                notifyItemChanged(position);
+            } else if (appendNew) {
+                added.add(user);
+            }
+        }
+        addUsers(added);
+    }
+
+    /**
+     * Whether another page may be loaded without going over {@link #MAX_USERS}
+     * @return true if there is room for more users
+     */
+    public boolean canLoadMore() {
+        return getItemCount() < MAX_USERS;
+    }
+
+    private void append(List<User> page) {
+        if (this.users == null) {
+            this.users = new ArrayList<>();
+            this.labels = new ArrayList<>();
+        }
+
+        UserCache cache = UserCache.getInstance();
+        for (User user : cache.resolve(page)) {
+            if (this.users.size() >= MAX_USERS) {
+                break;
+            }
+            this.users.add(user);
+            this.labels.add(cache.getLabel(user));
+        }
+    }
+
     /**
      * An interface for the adapter click listener
      */
@@ -0,0 +1,131 @@
+package clarkson.ee408.tictactoev4;
+
+import clarkson.ee408.tictactoev4.game.RuleEngine;
+
+/**
+ * An immutable copy of a {@link TicTacToe} board taken after a move, safe to hand from the computation
+ * thread to the main thread. Cells are packed two bits each, row-major, into a single int.
+ */
+public final class BoardSnapshot {
+
+    private final int cells;
+    private final long hash;
+    private final int turn;
+    private final int player;
+    private final int winner;
+    private final boolean gameOver;
+    private final String result;
+
+    /**
+     * Creates a new snapshot, see {@link TicTacToe#snapshot()}.
+     *
+     * @param cells the packed board, see {@link TicTacToe#getBoard()}
+     * @param hash the Zobrist hash of the board, see {@link TicTacToe#getHash()}
+     * @param turn the player number that can make the next move
+     * @param player the local player number
+     * @param winner the player number that won, 0 if none
+     * @param gameOver whether the game is over
+     * @param result the result text shown to the user
+     */
+    BoardSnapshot(int cells, long hash, int turn, int player, int winner, boolean gameOver, String result) {
+        this.cells = cells;
+        this.hash = hash;
+        this.turn = turn;
+        this.player = player;
+        this.winner = winner;
+        this.gameOver = gameOver;
+        this.result = result;
+    }
+
+    /**
+     * Returns the mark on a cell.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the player number, 0 if the cell is empty
+     */
+    public int getCell(int row, int col) {
+        return TicTacToe.cellOf(cells, row, col);
+    }
+
+    /**
+     * Returns the packed board.
+     *
+     * @return the board, two bits per cell
+     */
+    public int getCells() {
+        return cells;
+    }
+
+    /**
+     * Returns the Zobrist hash of the board.
+     *
+     * @return the hash, 0 for the empty board
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets which player number can make the next move.
+     *
+     * @return the owner of the board
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Return the local player number.
+     *
+     * @return the player number
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Return the player number that won.
+     *
+     * @return the winner, 0 if nobody won (yet)
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Whether somebody won or the board is full.
+     *
+     * @return true if the game is over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Return the result text shown to the user, see {@link TicTacToe#result()}.
+     *
+     * @return the result
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the number of moves played, which is also the ply of the next move.
+     *
+     * @return the number of marks on the board
+     */
+    public int getPly() {
+        return RuleEngine.plies(cells);
+    }
+
+    /**
+     * Whether it is the local player's turn.
+     *
+     * @return true if the local player can move
+     */
+    public boolean isMyTurn() {
+        return player == turn;
+    }
+}
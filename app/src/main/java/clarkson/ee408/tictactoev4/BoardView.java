@@ -0,0 +1,189 @@
+package clarkson.ee408.tictactoev4;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * A single {@link View} that draws the whole TicTacToe board on a {@link Canvas}.
+ * Touches are mapped to a cell by dividing the coordinates by the cell size. Placing a mark invalidates the
+ * whole view: dirty rectangles are ignored under hardware acceleration, and redrawing one view's grid and
+ * nine marks is still cheaper than laying out and drawing a view per cell.
+ */
+public class BoardView extends View {
+
+    /**
+     * Mark value of an empty cell
+     */
+    public static final int EMPTY = 0;
+
+    private static final float LINE_WIDTH = 10f;
+    private static final float MARK_SCALE = 0.6f;
+
+    private final int side;
+    private final int[] marks;
+    private final Paint gridPaint;
+    private final Paint markPaint;
+
+    private float cellSize;
+    private float markOffset;
+    private OnCellClickListener listener;
+
+    public BoardView(Context context) {
+        this(context, null);
+    }
+
+    public BoardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        this.side = TicTacToe.SIDE;
+        this.marks = new int[side * side];
+
+        this.gridPaint = new Paint();
+        this.gridPaint.setStrokeWidth(LINE_WIDTH);
+
+        this.markPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        this.markPaint.setTextAlign(Paint.Align.CENTER);
+        this.markPaint.setColor(Color.BLACK);
+
+        setClickable(true);
+    }
+
+    /**
+     * Sets the listener notified when the user taps an empty cell.
+     *
+     * @param listener the listener, or null
+     */
+    public void setOnCellClickListener(OnCellClickListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Places a mark on a cell and redraws the board.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param mark the player number (1 draws X, 2 draws O), or {@link #EMPTY}
+     */
+    public void setMark(int row, int col, int mark) {
+        int index = row * side + col;
+        if (marks[index] == mark) {
+            return;
+        }
+        marks[index] = mark;
+        invalidate();
+    }
+
+    /**
+     * Returns the mark on a cell.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the player number, or {@link #EMPTY}
+     */
+    public int getMark(int row, int col) {
+        return marks[row * side + col];
+    }
+
+    /**
+     * Removes every mark from the board.
+     */
+    public void clear() {
+        Arrays.fill(marks, EMPTY);
+        invalidate();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled != isEnabled()) {
+            super.setEnabled(enabled);
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // The board is always square
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        int height = getDefaultSize(getSuggestedMinimumHeight(), heightMeasureSpec);
+        int size = Math.min(width, height);
+        setMeasuredDimension(size, size);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        cellSize = (float) Math.min(w, h) / side;
+        markPaint.setTextSize(cellSize * MARK_SCALE);
+
+        // Vertical offset that centers the text baseline in a cell
+        markOffset = -(markPaint.ascent() + markPaint.descent()) / 2;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        gridPaint.setColor(isEnabled() ? Color.DKGRAY : Color.LTGRAY);
+        float size = cellSize * side;
+        for (int i = 1; i < side; i++) {
+            float offset = i * cellSize;
+            canvas.drawLine(offset, 0, offset, size, gridPaint);
+            canvas.drawLine(0, offset, size, offset, gridPaint);
+        }
+
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int mark = marks[row * side + col];
+                if (mark == EMPTY) {
+                    continue;
+                }
+                float x = col * cellSize + cellSize / 2;
+                float y = row * cellSize + cellSize / 2 + markOffset;
+                canvas.drawText(mark == 1 ? "X" : "O", x, y, markPaint);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled() || cellSize <= 0) {
+            return false;
+        }
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                return true;
+            case MotionEvent.ACTION_UP:
+                int col = (int) (event.getX() / cellSize);
+                int row = (int) (event.getY() / cellSize);
+                if (row < 0 || col < 0 || row >= side || col >= side || marks[row * side + col] != EMPTY) {
+                    return true;
+                }
+                performClick();
+                if (listener != null) {
+                    listener.onCellClicked(row, col);
+                }
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * An interface for the board click listener
+     */
+    public interface OnCellClickListener {
+        void onCellClicked(int row, int col);
+    }
+}
@@ -9,23 +9,23 @@ public class GameMoveRunnable implements Runnable {
 
     public static final int POLL_DELAY_MILLIS = 1000; // 1 second
 
-    private final MainActivity mainActivity;
+    private final GameSessions sessions;
     private final Handler handler;
 
     /**
      * Creates a new instance of {@code GameMoveTaskRunnable}.
      *
-     * @param mainActivity the instance of MainActivity
+     * @param sessions the games to poll
      * @param handler the instance of Handler that is executing this
      */
-    public GameMoveRunnable(MainActivity mainActivity, Handler handler) {
-        this.mainActivity = mainActivity;
+    public GameMoveRunnable(GameSessions sessions, Handler handler) {
+        this.sessions = sessions;
         this.handler = handler;
     }
 
     @Override
     public void run() {
-        this.mainActivity.requestMove();
+        this.sessions.requestMoves();
         this.handler.postDelayed(this, POLL_DELAY_MILLIS);
     }
 }
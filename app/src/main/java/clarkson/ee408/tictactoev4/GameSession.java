@@ -0,0 +1,415 @@
+package clarkson.ee408.tictactoev4;
+
+import android.util.Log;
+
+import java.io.IOException;
+
+import clarkson.ee408.tictactoev4.client.AppExecutors;
+import clarkson.ee408.tictactoev4.client.PreparedRequest;
+import clarkson.ee408.tictactoev4.client.SocketClient;
+import clarkson.ee408.tictactoev4.game.RuleEngine;
+import clarkson.ee408.tictactoev4.game.Zobrist;
+import clarkson.ee408.tictactoev4.model.CompactEvent;
+import clarkson.ee408.tictactoev4.rating.RatingTable;
+import clarkson.ee408.tictactoev4.socket.GamingResponse;
+import clarkson.ee408.tictactoev4.socket.Request;
+import clarkson.ee408.tictactoev4.socket.Response;
+import clarkson.ee408.tictactoev4.socket.StateResponse;
+
+/**
+ * One game in progress: its {@link TicTacToe} engine, the last {@link BoardSnapshot} of it and its
+ * preallocated REQUEST_MOVE poll. Sessions are created and polled by {@link GameSessions}; a screen showing
+ * the game registers a {@link Listener}. When the board can't be trusted anymore (a rejected or missed move, a hash
+ * mismatch) the whole board is fetched again with one GET_STATE request, see {@link #resync()}.
+ * Rematches and undos are agreed with the server on the same event, so back-to-back games keep the session, its
+ * poll and its connection.
+ * The engine is only touched on the computation thread, everything else on the main thread.
+ */
+public final class GameSession {
+
+    private static final String TAG = "GameSession";
+
+    private final int eventId;
+    private final CompactEvent pairing;
+    private final TicTacToe game;
+    private final PreparedRequest pollRequest;
+    private final GamingResponse pollResponse = new GamingResponse();
+
+    private BoardSnapshot snapshot;
+    private boolean active = true;
+    private String endMessage;
+    private Listener listener;
+    private boolean missedPoll;
+    private boolean resyncing;
+    private int revision;
+    private Request.RequestType proposal;
+
+    GameSession(CompactEvent pairing, int player, PreparedRequest pollRequest) {
+        this.eventId = pairing.getEventId();
+        this.pairing = pairing;
+        this.game = new TicTacToe(player);
+        this.snapshot = this.game.snapshot();
+        this.pollRequest = pollRequest;
+    }
+
+    /**
+     * Returns the event of this game.
+     *
+     * @return the eventId
+     */
+    public int getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Returns the event as it was when the game started, for the names of the players.
+     *
+     * @return the pairing
+     */
+    public CompactEvent getPairing() {
+        return pairing;
+    }
+
+    /**
+     * Returns the state of the board after the last move that was applied.
+     *
+     * @return the latest snapshot
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Whether the server still considers the game in play.
+     *
+     * @return false once a poll reported the game inactive
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Returns the server's explanation of why the game ended.
+     *
+     * @return the message, or null while the game is active
+     */
+    public String getEndMessage() {
+        return endMessage;
+    }
+
+    /**
+     * Sets the listener notified of changes to this game.
+     *
+     * @param listener the listener, or null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Plays a move on the engine and publishes the new snapshot.
+     *
+     * @param row the row of the move
+     * @param col the column of the move
+     */
+    public void play(int row, int col) {
+        if (!active) {
+            return;
+        }
+
+        AppExecutors.getInstance().computation().execute(() -> {
+            int code = game.check(row, col);
+            if (code != RuleEngine.OK) {
+                Log.w(TAG, "Event " + eventId + ": illegal move (" + row + ", " + col + "), "
+                        + RuleEngine.describe(code));
+                return;
+            }
+            game.play(row, col);
+            publish(game.snapshot());
+        });
+    }
+
+    /**
+     * Returns what the opponent proposed and the user didn't answer yet.
+     *
+     * @return {@link Request.RequestType#REMATCH}, {@link Request.RequestType#UNDO_MOVE} or null
+     */
+    public Request.RequestType getProposal() {
+        return proposal;
+    }
+
+    /**
+     * Proposes, or agrees to, another game on the same event. The board is cleared once both players agreed.
+     */
+    public void rematch() {
+        Request request = new Request(Request.RequestType.REMATCH, null);
+        request.setEventId(eventId);
+        send(request);
+    }
+
+    /**
+     * Proposes to take back the user's last move, or agrees to take back the opponent's. The move is removed
+     * once both players agreed.
+     */
+    public void undo() {
+        if (snapshot.getPly() == 0) {
+            return;
+        }
+
+        Request request = new Request(Request.RequestType.UNDO_MOVE, String.valueOf(snapshot.getPly() - 1));
+        request.setEventId(eventId);
+        send(request);
+    }
+
+    private void send(Request request) {
+        if (!active) {
+            return;
+        }
+
+        AppExecutors.getInstance().networkIO().execute(() -> {
+            try {
+                Response response = SocketClient.getInstance().sendRequest(request, Response.class);
+                if (response == null || response.getStatus() != Response.ResponseStatus.SUCCESS) {
+                    Log.w(TAG, "Event " + eventId + ": " + request.getType() + " refused, "
+                            + (response == null ? null : response.getMessage()));
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error sending " + request.getType(), e);
+            }
+        });
+    }
+
+    PreparedRequest getPollRequest() {
+        return pollRequest;
+    }
+
+    GamingResponse getPollResponse() {
+        return pollResponse;
+    }
+
+    /**
+     * Records that the last poll of this game got no answer, see {@link GameSessions}.
+     */
+    void missPoll() {
+        missedPoll = true;
+    }
+
+    /**
+     * Replaces the local board with the server's, fetched in a single GET_STATE round trip. Main thread only.
+     */
+    public void resync() {
+        if (!active || resyncing) {
+            return;
+        }
+        resyncing = true;
+
+        Request request = new Request(Request.RequestType.GET_STATE, null);
+        request.setEventId(eventId);
+        AppExecutors.getInstance().networkIO().execute(() -> {
+            StateResponse response = null;
+            try {
+                response = SocketClient.getInstance().sendRequest(request, StateResponse.class);
+            } catch (IOException e) {
+                Log.e(TAG, "Error requesting state", e);
+            }
+
+            StateResponse state = response;
+            AppExecutors.getInstance().mainThread().execute(() -> {
+                resyncing = false;
+                applyState(state);
+            });
+        });
+    }
+
+    /**
+     * Brings the board back to the server's after a rematch or an undo: moves are taken back from the engine's
+     * stack until the board ends with the server's last move. Falls back to {@link #resync()} if the result
+     * doesn't match the server's board.
+     */
+    private void rewind(int move, int ply, long hash) {
+        if (move >= 0 && ply == RuleEngine.ANY_PLY) {
+            // Without a ply there is no telling how many moves to take back
+            resync();
+            return;
+        }
+
+        AppExecutors.getInstance().computation().execute(() -> {
+            if (move < 0) {
+                // A rematch, or every move was taken back
+                game.resetGame();
+            } else {
+                // Take back the moves played after the server's last one
+                int extra = RuleEngine.plies(game.getBoard()) - (ply + 1);
+                for (int i = 0; i < extra; i++) {
+                    game.undo();
+                }
+            }
+
+            int board = game.getBoard();
+            boolean matches = move < 0 || (hash != 0
+                    ? game.getHash() == hash
+                    : RuleEngine.plies(board) == ply + 1 && RuleEngine.cellOf(board, move) != 0);
+            publish(game.snapshot());
+            if (!matches) {
+                AppExecutors.getInstance().mainThread().execute(this::resync);
+            }
+        });
+    }
+
+    private void applyState(StateResponse state) {
+        if (!active || state == null || state.getStatus() != Response.ResponseStatus.SUCCESS) {
+            // Tried again on the next rejected move
+            return;
+        }
+
+        if (state.getEventId() != eventId) {
+            Log.e(TAG, "Event " + eventId + ": state of event " + state.getEventId() + " ignored");
+            return;
+        }
+        if (!state.isActive()) {
+            end(state.getMessage());
+            return;
+        }
+
+        int board = state.getBoard();
+        if (!RuleEngine.isValid(board) || RuleEngine.turn(board) != state.getTurn()
+                || RuleEngine.plies(board) != state.getPly()
+                || (state.getHash() != 0 && state.getHash() != Zobrist.hash(board))) {
+            Log.e(TAG, "Event " + eventId + ": malformed state " + Integer.toHexString(board) + " at ply "
+                    + state.getPly());
+            return;
+        }
+
+        Log.i(TAG, "Event " + eventId + ": resynced at ply " + state.getPly());
+        AppExecutors.getInstance().computation().execute(() -> {
+            game.restore(board);
+            publish(game.snapshot());
+        });
+    }
+
+    private void end(String message) {
+        active = false;
+        endMessage = message;
+        if (listener != null) {
+            listener.onGameEnded(this, endMessage);
+        }
+    }
+
+    /**
+     * Applies the response of the last poll, see {@link GameSessions}.
+     */
+    void applyPoll() {
+        GamingResponse response = pollResponse;
+        if (!active || response.getStatus() != Response.ResponseStatus.SUCCESS) {
+            return;
+        }
+
+        if (!response.isActive()) {
+            end(response.getMessage());
+            return;
+        }
+
+        if (response.getProposal() != proposal) {
+            proposal = response.getProposal();
+            if (listener != null) {
+                listener.onProposal(this, proposal);
+            }
+        }
+
+        // A rematch or undo was agreed, rewind the board before looking at the move
+        if (response.getRevision() != revision) {
+            revision = response.getRevision();
+            missedPoll = false;
+            rewind(response.getMove(), response.getPly(), response.getHash());
+            return;
+        }
+
+        // The move of the lost poll may be gone already if the server doesn't number moves
+        if (missedPoll) {
+            missedPoll = false;
+            resync();
+        }
+
+        int move = response.getMove();
+        if (move < 0) {
+            // No move yet
+            return;
+        }
+
+        int board = snapshot.getCells();
+        int opponent = snapshot.getPlayer() == 1 ? 2 : 1;
+        int code = RuleEngine.validate(board, move, opponent, response.getPly());
+        if (code == RuleEngine.OK) {
+            long expected = snapshot.getHash() ^ Zobrist.key(move, opponent);
+            if (verify(expected, response.getHash(), response.getPly())) {
+                play(move / TicTacToe.SIDE, move % TicTacToe.SIDE);
+            }
+            return;
+        }
+
+        // The server keeps returning the last move; servers that don't number moves can only be told by the cell
+        if (code == RuleEngine.STALE
+                || (response.getPly() == RuleEngine.ANY_PLY && RuleEngine.cellOf(board, move) != 0)) {
+            // Still worth checking while nothing happens, if it is the move the board ends with
+            if (response.getPly() == snapshot.getPly() - 1) {
+                verify(snapshot.getHash(), response.getHash(), response.getPly());
+            }
+            return;
+        }
+        Log.w(TAG, "Event " + eventId + ": rejected move " + move + " at ply " + response.getPly() + ", "
+                + RuleEngine.describe(code));
+        resync();
+    }
+
+    /**
+     * Compares the server's hash of the board with the local one, see {@link Zobrist}, and resyncs if they
+     * differ. Main thread only.
+     *
+     * @param local the hash of the local board after move {@code ply}
+     * @param server the server's hash, 0 if the server doesn't hash boards
+     * @param ply the move both hashes are taken after
+     * @return false if the boards differ
+     */
+    boolean verify(long local, long server, int ply) {
+        if (server == 0 || server == local) {
+            return true;
+        }
+        Log.e(TAG, "Event " + eventId + ": board out of sync after ply " + ply);
+        resync();
+        return false;
+    }
+
+    private void publish(BoardSnapshot next) {
+        // Runs on the computation thread
+        AppExecutors.getInstance().mainThread().execute(() -> {
+            // Later snapshots of a finished game, from a poll or a resync, must not rate it again
+            boolean ended = next.isGameOver() && !snapshot.isGameOver();
+            snapshot = next;
+            if (ended) {
+                rate();
+            }
+            if (listener != null) {
+                listener.onSnapshot(this, next);
+            }
+        });
+    }
+
+    /**
+     * Rates the game that just ended, every game of a rematch chain once, whether or not a screen shows it.
+     * The server's ratings overwrite ours with the next roster
+     */
+    private void rate() {
+        RatingTable.getInstance().recordResult(pairing.getSender(), pairing.getOpponent(), snapshot.getWinner());
+    }
+
+    /**
+     * An interface for the game change listener, called on the main thread
+     */
+    public interface Listener {
+        void onSnapshot(GameSession session, BoardSnapshot snapshot);
+
+        void onGameEnded(GameSession session, String message);
+
+        void onProposal(GameSession session, Request.RequestType proposal);
+    }
+}
@@ -0,0 +1,211 @@
+package clarkson.ee408.tictactoev4;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import clarkson.ee408.tictactoev4.client.AppExecutors;
+import clarkson.ee408.tictactoev4.client.PreparedRequest;
+import clarkson.ee408.tictactoev4.client.SocketClient;
+import clarkson.ee408.tictactoev4.model.CompactEvent;
+import clarkson.ee408.tictactoev4.socket.GamingResponse;
+import clarkson.ee408.tictactoev4.socket.Request;
+
+/**
+ * A singleton holding every game the user is playing, keyed by eventId.
+ * A single poller serves all of them: every {@link GameMoveRunnable#POLL_DELAY_MILLIS} the REQUEST_MOVE polls of
+ * the active games are sent together with {@link SocketClient#sendPreparedAll}, so a dozen games share the same
+ * connections and cost one round trip per tick instead of a poller and a socket each. The arrays of a poll are
+ * rebuilt only when a game is opened or closed, so a tick doesn't allocate.
+ * Main thread only.
+ */
+public final class GameSessions {
+
+    private static final String TAG = "GameSessions";
+
+    private static GameSessions INSTANCE;
+
+    private final Map<Integer, GameSession> sessions;
+    private final Handler handler;
+    private final GameMoveRunnable poller;
+    private final AtomicBoolean pollInFlight;
+    private final Runnable pollTask = this::poll;
+    private final Runnable applyPollTask = this::applyPoll;
+
+    // Sized for every open session, replaced by open() and close()
+    private PollBatch batch = new PollBatch(Collections.<GameSession>emptyList());
+    // The batch of the poll in flight, which open() and close() don't touch
+    private PollBatch inFlight;
+
+    private GameSessions() {
+        this.sessions = new LinkedHashMap<>();
+        this.handler = new Handler(Looper.getMainLooper());
+        this.poller = new GameMoveRunnable(this, this.handler);
+        this.pollInFlight = new AtomicBoolean();
+    }
+
+    /**
+     * Returns the only instance of {@code GameSessions}. Main thread only.
+     *
+     * @return the {@code GameSessions} instance
+     */
+    public static GameSessions getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new GameSessions();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the session of an event, creating it on first use. Polling starts with the first session.
+     *
+     * @param pairing the event of the game
+     * @param player the local player number, only used when the session is created
+     * @return the session
+     */
+    public GameSession open(CompactEvent pairing, int player) {
+        int eventId = pairing.getEventId();
+        GameSession session = this.sessions.get(eventId);
+        if (session == null) {
+            Request poll = new Request(Request.RequestType.REQUEST_MOVE, null);
+            poll.setEventId(eventId);
+            session = new GameSession(pairing, player, SocketClient.getInstance().prepare(poll));
+            this.sessions.put(eventId, session);
+            this.batch = new PollBatch(this.sessions.values());
+
+            if (this.sessions.size() == 1) {
+                this.handler.post(this.poller);
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Returns the session of an event.
+     *
+     * @param eventId the event of the game
+     * @return the session, or null if the game isn't open
+     */
+    public GameSession get(int eventId) {
+        return this.sessions.get(eventId);
+    }
+
+    /**
+     * Returns every open session.
+     *
+     * @return the sessions, in the order they were opened
+     */
+    public Collection<GameSession> getAll() {
+        return Collections.unmodifiableCollection(this.sessions.values());
+    }
+
+    /**
+     * Forgets a game once it was completed or aborted. Polling stops with the last session.
+     *
+     * @param eventId the event of the game
+     */
+    public void close(int eventId) {
+        GameSession session = this.sessions.remove(eventId);
+        if (session != null) {
+            session.setListener(null);
+            this.batch = new PollBatch(this.sessions.values());
+        }
+        if (this.sessions.isEmpty()) {
+            this.handler.removeCallbacks(this.poller);
+        }
+    }
+
+    /**
+     * Polls every active game at once, called by {@link GameMoveRunnable}.
+     */
+    public void requestMoves() {
+        // Skip this tick if the previous poll hasn't been applied yet
+        if (!this.pollInFlight.compareAndSet(false, true)) {
+            return;
+        }
+
+        PollBatch batch = this.batch;
+        int count = 0;
+        // Iterating the map would allocate an iterator every tick
+        for (GameSession session : batch.open) {
+            if (session.isActive()) {
+                batch.sessions[count] = session;
+                batch.requests[count] = session.getPollRequest();
+                batch.responses[count] = session.getPollResponse();
+                count++;
+            }
+        }
+        if (count == 0) {
+            this.pollInFlight.set(false);
+            return;
+        }
+
+        batch.count = count;
+        this.inFlight = batch;
+        AppExecutors.getInstance().networkIO().execute(this.pollTask);
+    }
+
+    /**
+     * Runs in networkIO thread, see {@link #requestMoves()}
+     */
+    private void poll() {
+        PollBatch batch = this.inFlight;
+        try {
+            SocketClient.getInstance().sendPreparedAll(batch.requests, batch.responses, batch.received, batch.count);
+            batch.failed = false;
+        } catch (IOException e) {
+            Log.e(TAG, "Error requesting moves", e);
+            batch.failed = true;
+        }
+        AppExecutors.getInstance().mainThread().execute(this.applyPollTask);
+    }
+
+    /**
+     * Runs in main thread, applies the responses of {@link #inFlight} to their sessions
+     */
+    private void applyPoll() {
+        PollBatch batch = this.inFlight;
+        try {
+            for (int i = 0; i < batch.count; i++) {
+                if (!batch.failed && batch.received[i]) {
+                    batch.sessions[i].applyPoll();
+                } else {
+                    batch.sessions[i].missPoll();
+                }
+            }
+        } finally {
+            this.inFlight = null;
+            this.pollInFlight.set(false);
+        }
+    }
+
+    /**
+     * The open sessions and the arrays handed to {@link SocketClient#sendPreparedAll}, which hold the active ones
+     */
+    private static final class PollBatch {
+
+        final GameSession[] open;
+        final GameSession[] sessions;
+        final PreparedRequest[] requests;
+        final GamingResponse[] responses;
+        final boolean[] received;
+        int count;
+        boolean failed;
+
+        PollBatch(Collection<GameSession> open) {
+            int size = open.size();
+            this.open = open.toArray(new GameSession[size]);
+            this.sessions = new GameSession[size];
+            this.requests = new PreparedRequest[size];
+            this.responses = new GamingResponse[size];
+            this.received = new boolean[size];
+        }
+    }
+}
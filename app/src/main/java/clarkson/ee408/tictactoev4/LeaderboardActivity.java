@@ -0,0 +1,143 @@
+package clarkson.ee408.tictactoev4;
+
+import android.graphics.Color;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Gravity;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.List;
+
+import clarkson.ee408.tictactoev4.client.*;
+import clarkson.ee408.tictactoev4.model.*;
+import clarkson.ee408.tictactoev4.rating.RatingTable;
+import clarkson.ee408.tictactoev4.socket.*;
+
+/**
+ * Shows the top rated players and the user's rank. The cached leaderboard is shown immediately and replaced
+ * once the server answered; if the server can't be reached the local {@link RatingTable} is shown instead.
+ */
+public class LeaderboardActivity extends AppCompatActivity {
+
+    private static final String TAG = "LeaderboardActivity";
+
+    // Rows shown from the local ratings when offline
+    private static final int LOCAL_TOP_K = 20;
+
+    private String username;
+    private TextView rankText;
+    private LinearLayout rows;
+    private LeaderboardResponse shown;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        username = getIntent().getStringExtra("username");
+        buildGuiByCode();
+
+        LeaderboardResponse cached = LeaderboardCache.getInstance().getCached();
+        if (cached != null) {
+            render(cached);
+        }
+        refresh();
+    }
+
+    /**
+     * Fetches the leaderboard if it changed, on the network thread
+     */
+    private void refresh() {
+        AppExecutors.getInstance().networkIO().execute(() -> {
+            try {
+                LeaderboardResponse response = LeaderboardCache.getInstance().fetch();
+                if (response != null) {
+                    AppExecutors.getInstance().mainThread().execute(() -> render(response));
+                    return;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting leaderboard", e);
+            }
+            AppExecutors.getInstance().mainThread().execute(this::renderLocal);
+        });
+    }
+
+    private void render(LeaderboardResponse response) {
+        // Unchanged since it was rendered, the views are still right
+        if (response == shown) {
+            return;
+        }
+        shown = response;
+
+        rows.removeAllViews();
+        List<User> top = response.getTop();
+        for (int i = 0; top != null && i < top.size(); i++) {
+            addRow(i + 1, top.get(i));
+        }
+        rankText.setText(formatRank(response.getRank(), response.getPlayers()));
+    }
+
+    private void renderLocal() {
+        // The server has the authoritative board, only fall back when nothing was ever received
+        if (shown != null) {
+            return;
+        }
+
+        RatingTable ratings = RatingTable.getInstance();
+        int[] top = ratings.top(LOCAL_TOP_K);
+        rows.removeAllViews();
+        for (int i = 0; i < top.length; i++) {
+            User user = new User(PlayerIds.username(top[i]), null, null, false);
+            user.setRating(ratings.getRating(top[i]));
+            addRow(i + 1, user);
+        }
+        rankText.setText(formatRank(ratings.getRank(username), ratings.size()) + " (offline)");
+    }
+
+    private void addRow(int rank, User user) {
+        TextView row = new TextView(this);
+        String name = user.getDisplayName() == null ? user.getUsername() : user.getDisplayName();
+        row.setText(rank + ". " + name + "  " + user.getRating());
+        row.setTextSize(18);
+        row.setPadding(16, 8, 16, 8);
+        if (user.getUsername() != null && user.getUsername().equals(username)) {
+            row.setBackgroundColor(Color.YELLOW);
+        }
+        rows.addView(row);
+    }
+
+    private static String formatRank(int rank, int players) {
+        return rank > 0 ? "Your rank: " + rank + " of " + players : "Play a game to get ranked";
+    }
+
+    public void buildGuiByCode() {
+        // Create the layout manager as a vertical LinearLayout
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.setPadding(32, 32, 32, 32);
+
+        TextView title = new TextView(this);
+        title.setText("Leaderboard");
+        title.setGravity(Gravity.CENTER);
+        title.setTextSize(24);
+        layout.addView(title);
+
+        rankText = new TextView(this);
+        rankText.setGravity(Gravity.CENTER);
+        rankText.setTextColor(Color.parseColor("#FF0099"));
+        rankText.setPadding(0, 16, 0, 16);
+        layout.addView(rankText);
+
+        ScrollView scroll = new ScrollView(this);
+        rows = new LinearLayout(this);
+        rows.setOrientation(LinearLayout.VERTICAL);
+        scroll.addView(rows);
+        layout.addView(scroll, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 1));
+
+        // Set layout as the View of this Activity
+        setContentView(layout);
+    }
+}
@@ -1,5 +1,6 @@
 package clarkson.ee408.tictactoev4;
 
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Button;
@@ -13,6 +14,7 @@ import com.google.gson.GsonBuilder;
 
 import clarkson.ee408.tictactoev4.client.*;
 import clarkson.ee408.tictactoev4.model.*;
+import clarkson.ee408.tictactoev4.perf.StartupTimer;
 import clarkson.ee408.tictactoev4.socket.*;
 
 public class LoginActivity extends AppCompatActivity {
@@ -24,7 +26,18 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTimer.mark(StartupTimer.ACTIVITY_CREATED);
+
+        // Restore requests that could not be delivered during a previous run. Queued on the disk thread before the
+        // connection is warmed up, the journal is replayed once the connection is authenticated
+        RequestJournal.getInstance().load(this);
+
+        // Connect and build the JSON adapters in the background while the layout inflates
+        EndpointRegistry.getInstance().setEndpoints(getResources().getStringArray(R.array.server_endpoints));
+        SocketClient.prewarm();
+
         setContentView(R.layout.activity_login);
+        StartupTimer.mark(StartupTimer.LAYOUT_INFLATED);
 
         //Getting UI elements
         Button loginButton = findViewById(R.id.buttonLogin);
@@ -69,7 +82,13 @@ public class LoginActivity extends AppCompatActivity {
 
         AppExecutors.getInstance().networkIO().execute(() -> {
             try {
-                Response response = SocketClient.getInstance().sendRequest(request, Response.class);
+                LoginResponse response = SocketClient.getInstance().sendRequest(request, LoginResponse.class);
+                StartupTimer.mark(StartupTimer.LOGIN_RESPONSE);
+                if (response != null && response.getStatus() == Response.ResponseStatus.SUCCESS) {
+                    SocketClient.getInstance().setSessionListener(
+                            new SessionHandler(getApplicationContext(), user.getUsername(), gson));
+                    SocketClient.getInstance().setSessionToken(response.getSessionToken());
+                }
                 AppExecutors.getInstance().mainThread().execute(() -> {
                     if (response != null) {
                         if (response.getStatus() == Response.ResponseStatus.SUCCESS) {
@@ -108,4 +127,41 @@ public class LoginActivity extends AppCompatActivity {
         Intent intent = new Intent(this, RegisterActivity.class);
         startActivity(intent);
     }
+
+    /**
+     * Follows the session after login, whatever screen is showing: back to this screen when the server forgot
+     * the session, straight into the game when a resumed session has one that isn't open
+     */
+    private static class SessionHandler implements SocketClient.SessionListener {
+        private final Context context;
+        private final String username;
+        private final Gson gson;
+
+        SessionHandler(Context context, String username, Gson gson) {
+            this.context = context;
+            this.username = username;
+            this.gson = gson;
+        }
+
+        public void onSessionExpired() {
+            Toast.makeText(context, "Session expired, please log in again", Toast.LENGTH_SHORT).show();
+            Intent intent = new Intent(context, LoginActivity.class);
+            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            context.startActivity(intent);
+        }
+
+        public void onGameResumed(Event event) {
+            // A game already on screen just keeps polling
+            if (event.getStatus() != Event.EventStatus.PLAYING
+                    || GameSessions.getInstance().get(event.getEventId()) != null) {
+                return;
+            }
+
+            Intent intent = new Intent(context, MainActivity.class);
+            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+            intent.putExtra("pairing", gson.toJson(event));
+            intent.putExtra("player", username.equals(event.getSender()) ? 1 : 2);
+            context.startActivity(intent);
+        }
+    }
 }
\ No newline at end of file
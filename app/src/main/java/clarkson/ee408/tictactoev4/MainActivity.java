@@ -4,12 +4,10 @@ import android.content.DialogInterface;
 import android.graphics.Color;
 import android.graphics.Point;
 import android.os.Bundle;
-import android.os.Handler;
 import android.util.Log;
 import android.view.Gravity;
-import android.view.View;
 import android.widget.Button;
-import android.widget.GridLayout;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -22,17 +20,30 @@ import com.google.gson.GsonBuilder;
 import java.io.IOException;
 
 import clarkson.ee408.tictactoev4.client.*;
+import clarkson.ee408.tictactoev4.game.Zobrist;
+import clarkson.ee408.tictactoev4.model.*;
+import clarkson.ee408.tictactoev4.perf.FrameTracker;
 import clarkson.ee408.tictactoev4.socket.*;
 
 public class MainActivity extends AppCompatActivity {
-    private TicTacToe tttGame;
-    private Button[][] buttons;
+
+    private static final String TAG = "MainActivity";
+
+    // The game shown by this screen, polled by GameSessions together with the user's other games
+    private GameSession session;
+    // The last rendered state of session, main thread only
+    private BoardSnapshot snapshot;
+    private CompactEvent pairing;
+    private BoardView board;
     private TextView status;
+    private Button takeBack;
+    // Set when the user leaves on purpose, otherwise the game goes on without this screen
+    private boolean forfeit;
+    private AlertDialog undoDialog;
+    private AlertDialog newGameDialog;
     private Gson gson;
-    private boolean shouldRequestMove;
     private SocketClient socketClient;
-    private Handler handler;
-    private GameMoveRunnable gameMoveTaskRunnable;
+    private FrameTracker frameTracker;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -41,112 +52,86 @@ public class MainActivity extends AppCompatActivity {
         // Get player value from PairingActivity (default to 1 if not found)
         int player = getIntent().getIntExtra("player", 1);
 
-        this.tttGame = new TicTacToe(player);
         this.gson = new GsonBuilder().serializeNulls().create();
+        this.pairing = CompactEvent.of(gson.fromJson(getIntent().getStringExtra("pairing"), Event.class));
         socketClient = SocketClient.getInstance();
-        shouldRequestMove = true;
+        frameTracker = FrameTracker.getInstance();
 
-        buildGuiByCode();
-        updateTurnStatus();
+        // Reattaches to the running game if the activity is recreated
+        this.session = GameSessions.getInstance().open(pairing, player);
+        this.snapshot = session.getSnapshot();
 
-        handler = new Handler();
-        gameMoveTaskRunnable = new GameMoveRunnable(this, handler);
-        handler.post(gameMoveTaskRunnable);
+        buildGuiByCode();
+        session.setListener(new SessionHandler());
+        if (session.isActive() && snapshot.isGameOver()) {
+            // Recreated after the game ended, the dialog went away with the old window
+            showGameOver();
+            showNewGameDialog();
+        } else if (session.isActive()) {
+            updateTurnStatus();
+        } else {
+            endGame(session.getEndMessage());
+        }
     }
 
     /**
-     * Sends a request to the server to ask for a game move made by the other player.
+     * Shows that the server ended the game, see {@link GameSession#getEndMessage()}
      */
-    public void requestMove() {
-        if (!shouldRequestMove) {
-            return; // Only request moves when it's our turn
-        }
-
-        // Create Request object with type REQUEST_MOVE
-        Request request = new Request();
-        request.setType(Request.RequestType.REQUEST_MOVE);
-        // You might want to include game state or player info
-        request.setData(""); // Add any necessary data
-
-        // Use SocketClient to send request in networkIO thread
-        AppExecutors.getInstance().networkIO().execute(() -> {
-            try {
-                GamingResponse response = socketClient.sendRequest(request, GamingResponse.class);
-
-                // Process response in main thread
-                AppExecutors.getInstance().mainThread().execute(() -> {
-                    if (response != null && response.getStatus() == Response.ResponseStatus.SUCCESS) {
-
-                        // Check if game is not active
-                        if (!response.isActive()) {
-                            // Game is inactive - end the game
-                            status.setText(response.getMessage());
-                            status.setBackgroundColor(Color.RED);
-                            enableButtons(false);
-                            shouldRequestMove = false;
-                            tttGame = null;
-                            return; // Exit early, don't process moves
-                        }
-
-                        // Get the move from GamingResponse (already parsed)
-                        int moveValue = response.getMove();
-
-                        // Validate move value
-                        if (moveValue >= 0 && moveValue < TicTacToe.SIDE * TicTacToe.SIDE) {
-                            // Convert single integer move to row and column
-                            int row = moveValue / TicTacToe.SIDE;
-                            int col = moveValue % TicTacToe.SIDE;
-
-                            // Utilize update() function to add changes to the board
-                            update(row, col);
-                        }
-                    }
-                });
-            } catch (Exception e) {
-                Log.e("MainActivity", "Error requesting move", e);
-            }
-        });
+    private void endGame(String message) {
+        status.setText(message);
+        status.setBackgroundColor(Color.RED);
+        enableBoard(false);
+        takeBack.setEnabled(false);
     }
 
     /**
      * Sends the player's move to the server.
      * @param move The move position (0-8) to send.
+     * @param ply The sequence number of the move, see {@link BoardSnapshot#getPly()}
+     * @param hash The hash of the board after the move, checked against the server's
      */
-    public void sendMove(int move) {
+    public void sendMove(int move, int ply, long hash) {
         // Create a Request object with type SEND_MOVE
         Request request = new Request();
         request.setType(Request.RequestType.SEND_MOVE);
-        request.setData("" + move);
+        request.setEventId(getEventId());
+        request.setData(gson.toJson(new Move(move, ply, hash)));
 
         // Send request asynchronously using AppExecutors
         AppExecutors.getInstance().networkIO().execute(() -> {
             try {
                 GamingResponse response = socketClient.sendRequest(request, GamingResponse.class);
-                Log.d("MainActivity", "Sent move: " + move + ", response: " + response);
+                Log.d(TAG, "Sent move: " + move + ", response: " + response);
 
                 // Handle response (optional)
                 AppExecutors.getInstance().mainThread().execute(() -> {
                     if (response != null && response.getStatus() == Response.ResponseStatus.SUCCESS) {
-                        Log.d("MainActivity", "Move acknowledged by server");
+                        Log.d(TAG, "Move acknowledged by server");
+                        session.verify(hash, response.getHash(), ply);
                     } else {
-                        Log.e("MainActivity", "Failed to send move to server");
+                        // The move is already on the local board, take the server's instead
+                        Log.e(TAG, "Move " + move + " refused by server: "
+                                + (response == null ? "no response" : response.getMessage()));
+                        session.resync();
                     }
                 });
             } catch (Exception e) {
-                Log.e("MainActivity", "Error sending move", e);
+                // SEND_MOVE is journaled by SocketClient and replayed once the connection is back
+                Log.e(TAG, "Error sending move, queued for replay", e);
             }
         });
     }
 
     /**
-     * Sends ABORT_GAME request to server when user leaves an ongoing game
+     * Sends ABORT_GAME request to server when user forfeits an ongoing game
      */
     private void abortGame() {
-        Log.d("MainActivity", "Sending ABORT_GAME request");
+        Log.d(TAG, "Sending ABORT_GAME request");
 
         // Create a Request object with type ABORT_GAME
         Request request = new Request();
         request.setType(Request.RequestType.ABORT_GAME);
+        request.setEventId(getEventId());
 
         // Send request asynchronously using AppExecutors
         AppExecutors.getInstance().networkIO().execute(() -> {
@@ -164,7 +149,7 @@ public class MainActivity extends AppCompatActivity {
                         Toast.makeText(MainActivity.this,
                                 "Game aborted successfully",
                                 Toast.LENGTH_SHORT).show();
-                        Log.d("MainActivity", "Game aborted successfully");
+                        Log.d(TAG, "Game aborted successfully");
                     } else {
                         String errorMsg = "Failed to abort game";
                         if (response != null && response.getMessage() != null) {
@@ -173,11 +158,11 @@ public class MainActivity extends AppCompatActivity {
                         Toast.makeText(MainActivity.this,
                                 errorMsg,
                                 Toast.LENGTH_SHORT).show();
-                        Log.e("MainActivity", errorMsg);
+                        Log.e(TAG, errorMsg);
                     }
                 });
             } catch (Exception e) {
-                Log.e("MainActivity", "Error aborting game", e);
+                Log.e(TAG, "Error aborting game", e);
                 // Show Toast in main thread
                 AppExecutors.getInstance().mainThread().execute(() -> {
                     Toast.makeText(MainActivity.this,
@@ -192,11 +177,12 @@ public class MainActivity extends AppCompatActivity {
      * Sends COMPLETE_GAME request to server when user leaves after game completion
      */
     private void completeGame() {
-        Log.d("MainActivity", "Sending COMPLETE_GAME request");
+        Log.d(TAG, "Sending COMPLETE_GAME request");
 
-        // Create a Request object with type COMPLETE_GAME
+        // Create a Request object with type COMPLETE_GAME, the server finds the winner from its own moves
         Request request = new Request();
         request.setType(Request.RequestType.COMPLETE_GAME);
+        request.setEventId(getEventId());
 
         // Send request asynchronously using AppExecutors
         AppExecutors.getInstance().networkIO().execute(() -> {
@@ -214,7 +200,7 @@ public class MainActivity extends AppCompatActivity {
                         Toast.makeText(MainActivity.this,
                                 "Game completed successfully",
                                 Toast.LENGTH_SHORT).show();
-                        Log.d("MainActivity", "Game completed successfully");
+                        Log.d(TAG, "Game completed successfully");
                     } else {
                         String errorMsg = "Failed to complete game";
                         if (response != null && response.getMessage() != null) {
@@ -223,11 +209,12 @@ public class MainActivity extends AppCompatActivity {
                         Toast.makeText(MainActivity.this,
                                 errorMsg,
                                 Toast.LENGTH_SHORT).show();
-                        Log.e("MainActivity", errorMsg);
+                        Log.e(TAG, errorMsg);
                     }
                 });
             } catch (Exception e) {
-                Log.e("MainActivity", "Error completing game", e);
+                // A failed COMPLETE_GAME was journaled by SocketClient and is replayed once the connection is back
+                Log.e(TAG, "Error completing game", e);
                 // Show Toast in main thread
                 AppExecutors.getInstance().mainThread().execute(() -> {
                     Toast.makeText(MainActivity.this,
@@ -239,57 +226,82 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private boolean checkGameIsInactive() throws IOException {
-        Request request = new Request();
-        request.setType(Request.RequestType.REQUEST_MOVE);
-        GamingResponse response = socketClient.sendRequest(request, GamingResponse.class);
-        return response == null || !response.isActive();
+        // Runs once when leaving, so a fresh response is fine here; pollResponse may still be in use
+        GamingResponse response = new GamingResponse();
+        return !socketClient.sendPrepared(session.getPollRequest(), response) || !response.isActive();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        frameTracker.start();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        frameTracker.stop();
+        frameTracker.export(this);
     }
 
     @Override
     protected void onDestroy() {
         // Call parent's onDestroy first
         super.onDestroy();
+        session.setListener(null);
 
-        // Stop the repetitive Handler
-        if (handler != null) {
-            // Remove the specific runnable
-            if (gameMoveTaskRunnable != null) {
-                handler.removeCallbacks(gameMoveTaskRunnable); // Use specific runnable
-            }
-            // Also remove any other callbacks/messages
-            handler.removeCallbacksAndMessages(null);
+        // Recreated for a configuration change, the game goes on
+        if (!isFinishing()) {
+            Log.d(TAG, "Activity destroyed");
+            return;
+        }
+
+        // Left with the back button mid-game: it stays open in GameSessions and can be reopened from the lobby
+        if (session.isActive() && !snapshot.isGameOver() && !forfeit) {
+            Log.d(TAG, "Activity destroyed, game " + getEventId() + " goes on");
+            return;
         }
 
         // Check game state and call appropriate method
-        if (tttGame != null) {
-            if (tttGame.isGameOver()) {
+        if (session.isActive()) {
+            if (snapshot.isGameOver()) {
                 completeGame(); // Game ended normally
             } else {
                 abortGame(); // Game was aborted
             }
         } else {
-            // If tttGame is null, the game was already ended. So it is safe to call abort just in case
+            // The game was already ended. So it is safe to call abort just in case
             abortGame();
         }
+        GameSessions.getInstance().close(getEventId());
+
+        Log.d(TAG, "Activity destroyed");
+    }
 
-        Log.d("MainActivity", "Activity destroyed");
+    /**
+     * The eventId of this game, routes its requests to the server node owning it
+     */
+    private int getEventId() {
+        return pairing == null ? 0 : pairing.getEventId();
     }
 
     private boolean isMyTurn() {
-        return this.tttGame.getPlayer() == this.tttGame.getTurn();
+        return this.snapshot.isMyTurn();
     }
 
     private void updateTurnStatus() {
-        runOnUiThread(() -> {
-            if (isMyTurn()) {
-                status.setText("Your Turn");
-                enableButtons(true);
-                requestMove();
-            } else {
-                status.setText("Waiting for Opponent");
-                enableButtons(false);
-            }
-        });
+        // Always called on the main thread
+        long start = frameTracker.begin("updateTurnStatus");
+        if (isMyTurn()) {
+            status.setText("Your Turn");
+            enableBoard(true);
+        } else {
+            status.setText("Waiting for Opponent");
+            enableBoard(false);
+        }
+        // While the opponent is thinking, the last move is the user's own
+        takeBack.setEnabled(!isMyTurn() && snapshot.getPly() > 0);
+        frameTracker.end("updateTurnStatus", start);
     }
 
     public void buildGuiByCode() {
@@ -298,116 +310,180 @@ public class MainActivity extends AppCompatActivity {
         getWindowManager().getDefaultDisplay().getSize(size);
         int w = size.x / TicTacToe.SIDE;
 
-        // Create the layout manager as a GridLayout
-        GridLayout gridLayout = new GridLayout(this);
-        gridLayout.setColumnCount(TicTacToe.SIDE);
-        gridLayout.setRowCount(TicTacToe.SIDE + 2);
-
-        // Create the buttons and add them to gridLayout
-        buttons = new Button[TicTacToe.SIDE][TicTacToe.SIDE];
-        ButtonHandler bh = new ButtonHandler();
-
-        gridLayout.setUseDefaultMargins(true);
-
-        for (int row = 0; row < TicTacToe.SIDE; row++) {
-            for (int col = 0; col < TicTacToe.SIDE; col++) {
-                buttons[row][col] = new Button(this);
-                buttons[row][col].setTextSize((int) (w * .2));
-                buttons[row][col].setOnClickListener(bh);
-                GridLayout.LayoutParams bParams = new GridLayout.LayoutParams();
-
-                bParams.topMargin = 0;
-                bParams.bottomMargin = 10;
-                bParams.leftMargin = 0;
-                bParams.rightMargin = 10;
-                bParams.width = w - 10;
-                bParams.height = w - 10;
-                buttons[row][col].setLayoutParams(bParams);
-                gridLayout.addView(buttons[row][col]);
-            }
-        }
+        // Create the layout manager as a vertical LinearLayout
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
 
-        // set up layout parameters of 4th row of gridLayout
-        status = new TextView(this);
-        GridLayout.Spec rowSpec = GridLayout.spec(TicTacToe.SIDE, 2);
-        GridLayout.Spec columnSpec = GridLayout.spec(0, TicTacToe.SIDE);
-        GridLayout.LayoutParams lpStatus
-                = new GridLayout.LayoutParams(rowSpec, columnSpec);
-        status.setLayoutParams(lpStatus);
+        // One view draws the whole board
+        board = new BoardView(this);
+        board.setOnCellClickListener(new BoardHandler());
+        layout.addView(board, new LinearLayout.LayoutParams(TicTacToe.SIDE * w, TicTacToe.SIDE * w));
+        for (int row = 0; row < TicTacToe.SIDE; row++)
+            for (int col = 0; col < TicTacToe.SIDE; col++)
+                board.setMark(row, col, snapshot.getCell(row, col));
 
         // set up status' characteristics
-        status.setWidth(TicTacToe.SIDE * w);
-        status.setHeight(w);
+        status = new TextView(this);
         status.setGravity(Gravity.CENTER);
         status.setBackgroundColor(Color.GREEN);
         status.setTextSize((int) (w * .15));
-        status.setText(tttGame.result());
+        status.setText(snapshot.getResult());
 
-        gridLayout.addView(status);
+        layout.addView(status, new LinearLayout.LayoutParams(TicTacToe.SIDE * w, w));
 
-        // Set gridLayout as the View of this Activity
-        setContentView(gridLayout);
+        // Asks the opponent to take back the user's last move
+        takeBack = new Button(this);
+        takeBack.setText("Take back move");
+        takeBack.setEnabled(false);
+        takeBack.setOnClickListener(v -> {
+            takeBack.setEnabled(false);
+            session.undo();
+        });
+        layout.addView(takeBack, new LinearLayout.LayoutParams(TicTacToe.SIDE * w,
+                LinearLayout.LayoutParams.WRAP_CONTENT));
+
+        // Leaving with the back button keeps the game, this ends it
+        Button leave = new Button(this);
+        leave.setText("Forfeit");
+        leave.setOnClickListener(v -> {
+            forfeit = true;
+            finish();
+        });
+        layout.addView(leave, new LinearLayout.LayoutParams(TicTacToe.SIDE * w,
+                LinearLayout.LayoutParams.WRAP_CONTENT));
+
+        // Set layout as the View of this Activity
+        setContentView(layout);
     }
 
+    /**
+     * Plays a move. The engine is evaluated on the computation thread; the main thread only
+     * renders the resulting {@link BoardSnapshot}, see {@link SessionHandler}.
+     *
+     * @param row the row of the move
+     * @param col the column of the move
+     */
     public void update(int row, int col) {
-        int play = tttGame.play(row, col);
-        if (play == 1)
-            buttons[row][col].setText("X");
-        else if (play == 2)
-            buttons[row][col].setText("O");
-        if (tttGame.isGameOver()) {
-            if (this.tttGame.getPlayer() == this.tttGame.whoWon()) {
-                status.setBackgroundColor(Color.GREEN);
-            } else {
-                status.setBackgroundColor(Color.RED);
+        session.play(row, col);
+    }
+
+    /**
+     * Applies the difference between the current and {@code next} snapshot to the views. Main thread only.
+     *
+     * @param next the snapshot to render
+     */
+    private void render(BoardSnapshot next) {
+        // The game ended while the snapshot was computed
+        if (!session.isActive()) {
+            return;
+        }
+
+        long start = frameTracker.begin("update");
+        boolean ended = next.isGameOver() && !snapshot.isGameOver();
+        if (next.getCells() != snapshot.getCells()) {
+            for (int row = 0; row < TicTacToe.SIDE; row++)
+                for (int col = 0; col < TicTacToe.SIDE; col++)
+                    if (next.getCell(row, col) != snapshot.getCell(row, col))
+                        board.setMark(row, col, next.getCell(row, col));
+        }
+        snapshot = next;
+
+        if (snapshot.isGameOver()) {
+            showGameOver();
+            // Later snapshots of the finished game, from a poll or a resync, must not offer it again
+            if (ended) {
+                showNewGameDialog();    // offer to play again
             }
-            enableButtons(false);
-            status.setText(tttGame.result());
-            showNewGameDialog();    // offer to play again
         } else {
+            status.setBackgroundColor(Color.GREEN);
             updateTurnStatus();
         }
+        frameTracker.end("update", start);
     }
 
-    public void enableButtons(boolean enabled) {
-        for (int row = 0; row < TicTacToe.SIDE; row++)
-            for (int col = 0; col < TicTacToe.SIDE; col++)
-                buttons[row][col].setEnabled(enabled);
+    private void showGameOver() {
+        if (snapshot.getPlayer() == snapshot.getWinner()) {
+            status.setBackgroundColor(Color.GREEN);
+        } else {
+            status.setBackgroundColor(Color.RED);
+        }
+        enableBoard(false);
+        takeBack.setEnabled(false);
+        status.setText(snapshot.getResult());
     }
 
-    public void resetButtons() {
-        for (int row = 0; row < TicTacToe.SIDE; row++)
-            for (int col = 0; col < TicTacToe.SIDE; col++)
-                buttons[row][col].setText("");
+    public void enableBoard(boolean enabled) {
+        board.setEnabled(enabled);
     }
 
     public void showNewGameDialog() {
+        if (newGameDialog != null && newGameDialog.isShowing()) {
+            return;
+        }
         AlertDialog.Builder alert = new AlertDialog.Builder(this);
-        alert.setTitle(tttGame.result());
-        alert.setMessage("Do you want to play again?");
+        alert.setTitle(snapshot.getResult());
+        if (session.getProposal() == Request.RequestType.REMATCH) {
+            alert.setMessage("Your opponent wants a rematch. Do you want to play again?");
+        } else {
+            alert.setMessage("Do you want to play again?");
+        }
         PlayDialog playAgain = new PlayDialog();
         alert.setPositiveButton("YES", playAgain);
         alert.setNegativeButton("NO", playAgain);
-        alert.show();
+        newGameDialog = alert.show();
     }
 
-    private class ButtonHandler implements View.OnClickListener {
-        public void onClick(View v) {
-            Log.d("button clicked", "button clicked");
+    /**
+     * Asks the user whether the opponent may take back their last move
+     */
+    private void showUndoDialog() {
+        AlertDialog.Builder alert = new AlertDialog.Builder(this);
+        alert.setTitle("Take back");
+        alert.setMessage("Your opponent wants to take back their last move. Do you agree?");
+        // Declining needs no request, the next move withdraws the proposal
+        alert.setPositiveButton("YES", (dialog, id) -> session.undo());
+        alert.setNegativeButton("NO", null);
+        undoDialog = alert.show();
+    }
 
-            for (int row = 0; row < TicTacToe.SIDE; row++) {
-                for (int column = 0; column < TicTacToe.SIDE; column++) {
-                    if (v == buttons[row][column]) {
-                        // Calculate move index
-                        int move = row * TicTacToe.SIDE + column;
+    private class BoardHandler implements BoardView.OnCellClickListener {
+        public void onCellClicked(int row, int column) {
+            Log.d(TAG, "Cell clicked");
 
-                        // 1 - Send move to server first
-                        sendMove(move);
+            // Calculate move index
+            int move = row * TicTacToe.SIDE + column;
 
-                        // 2 - Then update board locally
-                        update(row, column);
-                    }
-                }
+            // Ignore further taps until the move is rendered
+            enableBoard(false);
+
+            // 1 - Send move to server first
+            sendMove(move, snapshot.getPly(), snapshot.getHash() ^ Zobrist.key(move, snapshot.getTurn()));
+
+            // 2 - Then update board locally
+            update(row, column);
+        }
+    }
+
+    private class SessionHandler implements GameSession.Listener {
+        public void onSnapshot(GameSession changed, BoardSnapshot next) {
+            render(next);
+        }
+
+        public void onGameEnded(GameSession changed, String message) {
+            endGame(message);
+        }
+
+        public void onProposal(GameSession changed, Request.RequestType proposal) {
+            if (undoDialog != null) {
+                // Agreed, withdrawn or replaced
+                undoDialog.dismiss();
+                undoDialog = null;
+            }
+
+            if (proposal == Request.RequestType.UNDO_MOVE) {
+                showUndoDialog();
+            } else if (proposal == Request.RequestType.REMATCH && snapshot.isGameOver()) {
+                status.setText("Your opponent wants a rematch");
             }
         }
     }
@@ -415,14 +491,10 @@ public class MainActivity extends AppCompatActivity {
     private class PlayDialog implements DialogInterface.OnClickListener {
         public void onClick(DialogInterface dialog, int id) {
             if (id == -1) /* YES button */ {
-                tttGame.resetGame();
-
-                enableButtons(true);
-                resetButtons();
-                shouldRequestMove = true;
-                status.setBackgroundColor(Color.GREEN);
-                status.setText(tttGame.result());
-                updateTurnStatus();
+                // Same event and connection, the board is cleared once the opponent agrees too.
+                // The server rates the finished game then
+                session.rematch();
+                status.setText("Waiting for a rematch");
             } else if (id == -2) // NO button
                 MainActivity.this.finish();
         }
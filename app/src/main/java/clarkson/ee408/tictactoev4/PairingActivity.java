@@ -3,8 +3,13 @@ package clarkson.ee408.tictactoev4;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
+import android.text.InputType;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -16,27 +21,74 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
 
 import clarkson.ee408.tictactoev4.client.*;
 import clarkson.ee408.tictactoev4.model.*;
+import clarkson.ee408.tictactoev4.perf.FrameTracker;
+import clarkson.ee408.tictactoev4.rating.RatingTable;
 import clarkson.ee408.tictactoev4.socket.*;
 
 public class PairingActivity extends AppCompatActivity {
 
     private final String TAG = "PAIRING";
 
+    // Number of users requested per page
+    private static final int PAGE_SIZE = 50;
+
+    // Load the next page when the last visible user is this close to the end of the list
+    private static final int PREFETCH_DISTANCE = 10;
+
+    // Wait for the user to stop typing before searching
+    private static final long SEARCH_DELAY_MS = 300;
+
+    // Invitations are pushed, the roster only needs an occasional delta
+    private static final long ROSTER_INTERVAL_MS = 5000;
+
     private Gson gson;
 
     private TextView noAvailableUsersText;
     private RecyclerView recyclerView;
     private AvailableUsersAdapter adapter;
+    private Button quickMatchButton;
+
+    private String username;
 
     private Handler handler;
+    private FrameTracker frameTracker;
     private Runnable refresh;
+    private Runnable search;
+    private PushChannel<PairingResponse> invitations;
 
     private boolean shouldUpdatePairing = true;
 
+    // Whether we are waiting in the matchmaking queue
+    private boolean matchmaking;
+
+    // Last invitation shown, a poll that was already in flight may deliver it a second time
+    private CompactEvent lastInvitation;
+
+    // Pushed while an invitation was being answered, handled in order once it is. Invitations are PENDING,
+    // invitation responses ACCEPTED or DECLINED
+    private final Queue<CompactEvent> deferredInvitationUpdates = new ArrayDeque<>();
+    private final Queue<CompactEvent> deferredMatches = new ArrayDeque<>();
+
+    // The invitation dialog on screen, null if none
+    private AlertDialog respondDialog;
+
+    // Whether an ACCEPT_INVITATION request is in flight
+    private boolean accepting;
+
+    // Paging state, only touched on the main thread
+    private String searchPrefix;
+    private String nextCursor;
+    private long rosterVersion;
+    private boolean loadingPage;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -45,93 +97,314 @@ public class PairingActivity extends AppCompatActivity {
         Log.e(TAG, "App is now created");
       
         gson = new GsonBuilder().serializeNulls().create();
+        frameTracker = FrameTracker.getInstance();
 
 
         //Setting the username text
         TextView usernameText = findViewById(R.id.text_username);
 
-        String username = getIntent().getStringExtra("username");
+        username = getIntent().getStringExtra("username");
         usernameText.setText(username);
 
 
         //Getting UI Elements
         noAvailableUsersText = findViewById(R.id.text_no_available_users);
         recyclerView = findViewById(R.id.recycler_view_available_users);
+        quickMatchButton = findViewById(R.id.button_quick_match);
+        quickMatchButton.setOnClickListener(v -> {
+            if (matchmaking) {
+                cancelQuickMatch();
+            } else {
+                joinQuickMatch();
+            }
+        });
+        findViewById(R.id.button_watch_game).setOnClickListener(v -> createWatchDialog());
+        findViewById(R.id.button_my_games).setOnClickListener(v -> createGamesDialog());
+        findViewById(R.id.button_leaderboard).setOnClickListener(v -> {
+            Intent intent = new Intent(this, LeaderboardActivity.class);
+            intent.putExtra("username", username);
+            startActivity(intent);
+        });
 
         //Setting up recycler view adapter
         adapter = new AvailableUsersAdapter(this, this::sendGameInvitation);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView view, int dx, int dy) {
+                if (dy > 0) {
+                    loadNextPage();
+                }
+            }
+        });
 
         updateAvailableUsers(null);
 
+        invitations = new PushChannel<>(Request.RequestType.SUBSCRIBE_INVITATIONS, PairingResponse.class,
+                this::handleInvitationUpdate);
+
         handler = new Handler();
         refresh = () -> {
-            //call getPairingUpdate if shouldUpdatePairing is true
+            //call getRosterUpdate if shouldUpdatePairing is true
             if (shouldUpdatePairing) {
-                getPairingUpdate();
+                getRosterUpdate(null);
             }
-            handler.postDelayed(refresh, 1000);
+            handler.postDelayed(refresh, ROSTER_INTERVAL_MS);
         };
+        search = () -> getRosterUpdate(null);
         handler.post(refresh);
+
+        //Searching restarts the list from the first page
+        EditText searchText = findViewById(R.id.edit_text_search);
+        searchText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                String prefix = s.toString().trim();
+                searchPrefix = prefix.isEmpty() ? null : prefix;
+                nextCursor = null;
+                rosterVersion = 0;
+                loadingPage = false;
+                handler.removeCallbacks(search);
+                handler.postDelayed(search, SEARCH_DELAY_MS);
+            }
+        });
+    }
+
+    /**
+     * Request the next page of available users if the list is scrolled near its end
+     */
+    private void loadNextPage() {
+        if (loadingPage || nextCursor == null || !adapter.canLoadMore()) {
+            return;
+        }
+
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager == null
+                || layoutManager.findLastVisibleItemPosition() < adapter.getItemCount() - PREFETCH_DISTANCE) {
+            return;
+        }
+
+        loadingPage = true;
+        getRosterUpdate(nextCursor);
     }
 
     /**
-     * Send UPDATE_PAIRING request to the server
+     * Send UPDATE_ROSTER request to the server
+     * @param cursor the page of available users to get, null for the changes since {@link #rosterVersion}
      */
-    private void getPairingUpdate() {
-        //Send an UPDATE_PAIRING request to the server. If SUCCESS call handlePairingUpdate(). Else, Toast the error
+    private void getRosterUpdate(String cursor) {
+        //Send an UPDATE_ROSTER request to the server. If SUCCESS call handleRosterUpdate(). Else, Toast the error
+        String prefix = searchPrefix;
         Request request = new Request();
-        request.setType(Request.RequestType.UPDATE_PAIRING);
+        request.setType(Request.RequestType.UPDATE_ROSTER);
+        PairingQuery query = new PairingQuery(cursor, PAGE_SIZE, prefix, cursor == null ? rosterVersion : 0);
+        if (cursor == null) {
+            // Profiles that expired or were evicted come back with the changes
+            List<String> missing = UserCache.getInstance().getMissing();
+            if (!missing.isEmpty()) {
+                query.setProfiles(missing);
+            }
+        }
+        request.setData(gson.toJson(query));
 
         AppExecutors.getInstance().networkIO().execute(() -> {
             try {
                 PairingResponse pr = SocketClient.getInstance().sendRequest(request, PairingResponse.class);
 
                 if ((pr == null) || (pr.getStatus() == Response.ResponseStatus.FAILURE)) {
-                    AppExecutors.getInstance().mainThread().execute(() ->
-                            Toast.makeText(this, "Pairing update failed.", Toast.LENGTH_SHORT).show()
-                    );
+                    AppExecutors.getInstance().mainThread().execute(() -> {
+                        if (cursor != null) {
+                            loadingPage = false;
+                        }
+                        Toast.makeText(this, "Roster update failed.", Toast.LENGTH_SHORT).show();
+                    });
                     return;
                 }
 
                 AppExecutors.getInstance().mainThread().execute(() ->
-                        handlePairingUpdate(pr)
+                        handleRosterUpdate(pr, cursor, prefix)
                 );
 
             } catch (Exception e) {
-                Log.e(TAG, "Error updating pairing", e);
+                Log.e(TAG, "Error updating roster", e);
+                if (cursor != null) {
+                    AppExecutors.getInstance().mainThread().execute(() -> loadingPage = false);
+                }
             }
         });
     }
 
     /**
-     * Handle the PairingResponse received form the server
+     * Handle the roster PairingResponse received form the server
      * @param response PairingResponse from the server
+     * @param cursor the page that was requested, null for the changes since {@link #rosterVersion}
+     * @param prefix the search the page was requested for
      */
-    private void handlePairingUpdate(PairingResponse response) {
-        //handle availableUsers by calling updateAvailableUsers()
-        updateAvailableUsers(response.getAvailableUsers());
+    private void handleRosterUpdate(PairingResponse response, String cursor, String prefix) {
+        long start = frameTracker.begin("handleRosterUpdate");
+        //pages of an older search are dropped
+        if (!Objects.equals(prefix, searchPrefix)) {
+            if (cursor != null) {
+                loadingPage = false;
+            }
+            frameTracker.end("handleRosterUpdate", start);
+            return;
+        }
 
-        //handle invitationResponse. First by sending acknowledgement calling sendAcknowledgement()
-        //If the invitationResponse is ACCEPTED, Toast an accept message and call beginGame
-        //If the invitationResponse is DECLINED, Toast a decline message
-        Event invitationResponse = response.getInvitationResponse();
+        if (cursor == null) {
+            if (response.getRemovedUsers() == null) {
+                // Full first page, the server had no delta from our version. A page in flight no longer follows it
+                updateAvailableUsers(response.getAvailableUsers());
+                nextCursor = response.getNextCursor();
+                loadingPage = false;
+            } else {
+                adapter.applyDelta(response.getAvailableUsers(), response.getRemovedUsers(), nextCursor == null);
+                updateAvailableUsersVisibility();
+            }
+            rosterVersion = response.getVersion();
+        } else if (cursor.equals(nextCursor)) {
+            // Later pages may be newer than rosterVersion, the next delta covers them again and applies idempotently
+            adapter.addUsers(response.getAvailableUsers());
+            nextCursor = response.getNextCursor();
+            loadingPage = false;
+        } else {
+            // The list was refreshed while the page was in flight
+            loadingPage = false;
+        }
+        frameTracker.end("handleRosterUpdate", start);
+    }
+
+    /**
+     * Handle a match, invitation or invitation response pushed by the server
+     * @param response PairingResponse pushed on the invitation channel
+     */
+    private void handleInvitationUpdate(PairingResponse response) {
+        // Only the compact form is kept past this push
+        CompactEvent match = CompactEvent.of(response.getMatch());
+        if (match != null) {
+            handleMatch(match);
+        }
+        CompactEvent invitationResponse = CompactEvent.of(response.getInvitationResponse());
         if (invitationResponse != null) {
+            handleInvitationUpdate(invitationResponse);
+        }
+        CompactEvent invitation = CompactEvent.of(response.getInvitation());
+        if (invitation != null) {
+            handleInvitationUpdate(invitation);
+        }
+    }
+
+    /**
+     * Handle an invitation or invitation response now, or defer it while an invitation is being answered
+     * @param update the invitation (PENDING) or invitation response (ACCEPTED or DECLINED)
+     */
+    private void handleInvitationUpdate(CompactEvent update) {
+        // A push is only sent once, keep every one until the invitation is answered
+        if (!shouldUpdatePairing) {
+            deferredInvitationUpdates.add(update);
+            return;
+        }
+        if (update.getStatus() == Event.EventStatus.PENDING) {
+            handleInvitation(update);
+        } else {
+            handleInvitationResponse(update);
+        }
+    }
+
+    /**
+     * Handle a match found by the matchmaking queue by starting the game right away, sender plays first
+     * @param match the Event of the new game
+     */
+    private void handleMatch(CompactEvent match) {
+        // Cancelled while the server was pairing us, the opponent must not wait for a game we never start
+        if (!matchmaking) {
+            abortMatch(match);
+            return;
+        }
+        if (!shouldUpdatePairing) {
+            deferredMatches.add(match);
+            return;
+        }
+        setMatchmaking(false);
+        beginGame(match, username != null && username.equals(match.getSender()) ? 1 : 2);
+    }
 
-            sendAcknowledgement(invitationResponse);
+    /**
+     * Sends an ABORT_GAME request for a match we will not play
+     * @param match the Event of the game to abort
+     */
+    private void abortMatch(CompactEvent match) {
+        Request request = new Request(Request.RequestType.ABORT_GAME, null);
+        request.setEventId(match.getEventId());
 
-            if (invitationResponse.getStatus() == Event.EventStatus.ACCEPTED) {
-                Toast.makeText(this, invitationResponse.getOpponent() + " accepted your request!", Toast.LENGTH_SHORT).show();
-                beginGame(invitationResponse, 1);
-            } else if (invitationResponse.getStatus() == Event.EventStatus.DECLINED) {
-                Toast.makeText(this, invitationResponse.getOpponent() + " declined your request.", Toast.LENGTH_SHORT).show();
+        AppExecutors.getInstance().networkIO().execute(() -> {
+            try {
+                SocketClient.getInstance().sendRequest(request, Response.class);
+            } catch (Exception e) {
+                Log.e(TAG, "Error aborting match " + match.getEventId(), e);
             }
+        });
+    }
+
+    /**
+     * Handle the response of the opponent to our invitation
+     * @param invitationResponse the Event of the invitation, ACCEPTED or DECLINED
+     */
+    private void handleInvitationResponse(CompactEvent invitationResponse) {
+        long start = frameTracker.begin("handleInvitationUpdate");
+
+        //handle invitationResponse. First by sending acknowledgement calling sendAcknowledgement()
+        //If the invitationResponse is ACCEPTED, Toast an accept message and call beginGame
+        //If the invitationResponse is DECLINED, Toast a decline message
+        sendAcknowledgement(invitationResponse);
+
+        if (invitationResponse.getStatus() == Event.EventStatus.ACCEPTED) {
+            Toast.makeText(this, invitationResponse.getOpponent() + " accepted your request!", Toast.LENGTH_SHORT).show();
+            beginGame(invitationResponse, 1);
+        } else if (invitationResponse.getStatus() == Event.EventStatus.DECLINED) {
+            Toast.makeText(this, invitationResponse.getOpponent() + " declined your request.", Toast.LENGTH_SHORT).show();
         }
+        frameTracker.end("handleInvitationUpdate", start);
+    }
+
+    /**
+     * Handle an invitation from another player by showing it, unless it is already shown
+     * @param invitation the Event of the invitation, PENDING
+     */
+    private void handleInvitation(CompactEvent invitation) {
+        long start = frameTracker.begin("handleInvitationUpdate");
 
         //handle invitation by calling createRespondAlertDialog()
-        if (response.getInvitation() != null) {
-            createRespondAlertDialog(response.getInvitation());
+        if (!invitation.equals(lastInvitation)) {
+            lastInvitation = invitation;
+            createRespondAlertDialog(invitation);
+        }
+        frameTracker.end("handleInvitationUpdate", start);
+    }
+
+    /**
+     * Handle the invitation updates deferred while an invitation was being answered, unless one still is
+     */
+    private void resumeInvitationUpdates() {
+        if (respondDialog != null || accepting) {
+            return;
+        }
+        shouldUpdatePairing = true;
+        // Stops early if one of them opens another dialog or starts a game
+        while (shouldUpdatePairing && !deferredMatches.isEmpty()) {
+            handleMatch(deferredMatches.poll());
+        }
+        while (shouldUpdatePairing && !deferredInvitationUpdates.isEmpty()) {
+            handleInvitationUpdate(deferredInvitationUpdates.poll());
         }
     }
 
@@ -141,6 +414,10 @@ public class PairingActivity extends AppCompatActivity {
      */
     public void updateAvailableUsers(List<User> availableUsers) {
         adapter.setUsers(availableUsers);
+        updateAvailableUsersVisibility();
+    }
+
+    private void updateAvailableUsersVisibility() {
         if (adapter.getItemCount() <= 0) {
             //show noAvailableUsersText and hide recyclerView
             noAvailableUsersText.setVisibility(View.VISIBLE);
@@ -152,6 +429,117 @@ public class PairingActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Sends a QUICK_MATCH request to join the matchmaking queue. The game itself is pushed on the invitation channel,
+     * which is subscribed from onResume() before the button can be pressed
+     */
+    private void joinQuickMatch() {
+        setMatchmaking(true);
+        Request request = new Request(Request.RequestType.QUICK_MATCH,
+                String.valueOf(RatingTable.getInstance().getRating(username)));
+
+        AppExecutors.getInstance().networkIO().execute(() -> {
+            try {
+                Response response = SocketClient.getInstance().sendRequest(request, Response.class);
+
+                if (response == null || response.getStatus() != Response.ResponseStatus.SUCCESS) {
+                    String message = response == null ? "Quick match failed." : response.getMessage();
+                    AppExecutors.getInstance().mainThread().execute(() -> {
+                        setMatchmaking(false);
+                        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+                    });
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error joining quick match", e);
+                AppExecutors.getInstance().mainThread().execute(() -> setMatchmaking(false));
+            }
+        });
+    }
+
+    /**
+     * Sends a CANCEL_MATCH request to leave the matchmaking queue
+     */
+    private void cancelQuickMatch() {
+        setMatchmaking(false);
+        Request request = new Request(Request.RequestType.CANCEL_MATCH, null);
+
+        AppExecutors.getInstance().networkIO().execute(() -> {
+            try {
+                SocketClient.getInstance().sendRequest(request, Response.class);
+            } catch (Exception e) {
+                // The server also drops us from the queue when the invitation channel closes
+                Log.e(TAG, "Error cancelling quick match", e);
+            }
+        });
+    }
+
+    private void setMatchmaking(boolean matchmaking) {
+        this.matchmaking = matchmaking;
+        quickMatchButton.setText(matchmaking ? "Cancel Match" : "Quick Match");
+    }
+
+    /**
+     * Create a dialog listing the games the user has open, picking one shows it in MainActivity
+     */
+    private void createGamesDialog() {
+        List<GameSession> games = new ArrayList<>(GameSessions.getInstance().getAll());
+        if (games.isEmpty()) {
+            Toast.makeText(this, "No open games.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String[] labels = new String[games.size()];
+        for (int i = 0; i < labels.length; i++) {
+            GameSession game = games.get(i);
+            BoardSnapshot snapshot = game.getSnapshot();
+            String opponent = snapshot.getPlayer() == 1
+                    ? game.getPairing().getOpponent() : game.getPairing().getSender();
+            String state;
+            if (!game.isActive() || snapshot.isGameOver()) {
+                state = "Game over";
+            } else {
+                state = snapshot.isMyTurn() ? "Your turn" : "Waiting";
+            }
+            labels[i] = "Game " + game.getEventId() + " vs " + opponent + " - " + state;
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("My Games");
+        builder.setItems(labels, (dialogInterface, i) -> {
+            GameSession game = games.get(i);
+            Intent intent = new Intent(this, MainActivity.class);
+            intent.putExtra("player", game.getSnapshot().getPlayer());
+            intent.putExtra("pairing", gson.toJson(game.getPairing().toEvent()));
+            startActivity(intent);
+        });
+        builder.setNegativeButton("Cancel", null);
+        builder.show();
+    }
+
+    /**
+     * Create a dialog asking for the number of the game to watch, then open it in SpectatorActivity
+     */
+    private void createWatchDialog() {
+        EditText eventIdText = new EditText(this);
+        eventIdText.setInputType(InputType.TYPE_CLASS_NUMBER);
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Watch Game");
+        builder.setMessage("Game number");
+        builder.setView(eventIdText);
+        builder.setPositiveButton("Watch", (dialogInterface, i) -> {
+            try {
+                Intent intent = new Intent(this, SpectatorActivity.class);
+                intent.putExtra("eventId", Integer.parseInt(eventIdText.getText().toString()));
+                startActivity(intent);
+            } catch (NumberFormatException e) {
+                Toast.makeText(this, "Invalid game number.", Toast.LENGTH_SHORT).show();
+            }
+        });
+        builder.setNegativeButton("Cancel", null);
+        builder.show();
+    }
+
     /**
      * Sends game invitation to an
      * @param userOpponent the User to send invitation to
@@ -189,7 +577,7 @@ public class PairingActivity extends AppCompatActivity {
      * Sends an ACKNOWLEDGE_RESPONSE request to the server
      * Tell server i have received accept or declined response from my opponent
       */
-    private void sendAcknowledgement(Event invitationResponse) {
+    private void sendAcknowledgement(CompactEvent invitationResponse) {
         //Send an ACKNOWLEDGE_RESPONSE request to the server.
         if (invitationResponse == null) {
             Toast.makeText(this, "Invalid event.", Toast.LENGTH_SHORT).show();
@@ -232,7 +620,7 @@ public class PairingActivity extends AppCompatActivity {
      * Create a dialog showing incoming invitation
      * @param invitation the Event of an invitation
      */
-    private void createRespondAlertDialog(Event invitation) {
+    private void createRespondAlertDialog(CompactEvent invitation) {
         shouldUpdatePairing = false;
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setCancelable(false);
@@ -240,19 +628,25 @@ public class PairingActivity extends AppCompatActivity {
         builder.setMessage(invitation.getSender() + " has requested to play with you");
         builder.setPositiveButton("Accept", (dialogInterface, i) -> acceptInvitation(invitation));
         builder.setNegativeButton("Decline", (dialogInterface, i) -> declineInvitation(invitation));
-        builder.show();
+        builder.setOnDismissListener(dialogInterface -> {
+            respondDialog = null;
+            resumeInvitationUpdates();
+        });
+        respondDialog = builder.show();
     }
 
     /**
      * Sends an ACCEPT_INVITATION to the server
      * @param invitation the Event invitation to accept
      */
-    private void acceptInvitation(Event invitation) {
+    private void acceptInvitation(CompactEvent invitation) {
         //Send an ACCEPT_INVITATION request to the server. If SUCCESS beginGame() as player 2. Else, Toast the error
         if (invitation == null) {
             Toast.makeText(this, "Invalid invitation.", Toast.LENGTH_SHORT).show();
             return;
         }
+        // Invitation updates stay deferred until we know whether the game starts
+        accepting = true;
 
         Request request = new Request();
         request.setType(Request.RequestType.ACCEPT_INVITATION);
@@ -264,9 +658,10 @@ public class PairingActivity extends AppCompatActivity {
                         .sendRequest(request, Response.class);
 
                 if (response == null) {
-                    AppExecutors.getInstance().mainThread().execute(() ->
-                            Toast.makeText(this, "Accept invitation failed.", Toast.LENGTH_SHORT).show()
-                    );
+                    AppExecutors.getInstance().mainThread().execute(() -> {
+                        Toast.makeText(this, "Accept invitation failed.", Toast.LENGTH_SHORT).show();
+                        acceptFailed();
+                    });
                     return;
                 }
 
@@ -275,24 +670,38 @@ public class PairingActivity extends AppCompatActivity {
                             beginGame(invitation, 2)
                     );
                 } else {
-                    AppExecutors.getInstance().mainThread().execute(() ->
-                            Toast.makeText(this, response.getMessage(), Toast.LENGTH_SHORT).show()
-                    );
+                    AppExecutors.getInstance().mainThread().execute(() -> {
+                        Toast.makeText(this, response.getMessage(), Toast.LENGTH_SHORT).show();
+                        acceptFailed();
+                    });
                 }
 
             } catch (Exception e) {
                 Log.e(TAG, "Error accepting invitation", e);
+                AppExecutors.getInstance().mainThread().execute(this::acceptFailed);
             }
         });
     }
 
+    private void acceptFailed() {
+        accepting = false;
+        // Still pending on the server, which pushes it again on the next subscribe: let it reopen the dialog
+        lastInvitation = null;
+        resumeInvitationUpdates();
+    }
+
+    private void declineFailed() {
+        // Still pending on the server, the next push of it must show the dialog again
+        lastInvitation = null;
+    }
+
     /**
      * Sends an DECLINE_INVITATION to the server
      * @param invitation the Event invitation to decline
      */
-    private void declineInvitation(Event invitation) {
+    private void declineInvitation(CompactEvent invitation) {
         //Send a DECLINE_INVITATION request to the server. If SUCCESS response, Toast a message, else, Toast the error
-        //set shouldUpdatePairing to true after DECLINE_INVITATION is sent.
+        //Deferred invitation updates are handled when the dialog is dismissed, whatever the outcome
         if (invitation == null) {
             Toast.makeText(this, "Invalid invitation.", Toast.LENGTH_SHORT).show();
             return;
@@ -308,23 +717,27 @@ public class PairingActivity extends AppCompatActivity {
                         .sendRequest(request, Response.class);
 
                 if (response == null) {
-                    AppExecutors.getInstance().mainThread().execute(() ->
-                            Toast.makeText(this, "Decline invitation failed.", Toast.LENGTH_SHORT).show()
-                    );
+                    AppExecutors.getInstance().mainThread().execute(() -> {
+                        Toast.makeText(this, "Decline invitation failed.", Toast.LENGTH_SHORT).show();
+                        declineFailed();
+                    });
                     return;
                 }
 
-                AppExecutors.getInstance().mainThread().execute(() -> {
-                    if (response.getStatus() == Response.ResponseStatus.SUCCESS) {
-                        Toast.makeText(this, "Invitation declined.", Toast.LENGTH_SHORT).show();
-                        shouldUpdatePairing = true;
-                    } else {
+                if (response.getStatus() == Response.ResponseStatus.SUCCESS) {
+                    AppExecutors.getInstance().mainThread().execute(() ->
+                            Toast.makeText(this, "Invitation declined.", Toast.LENGTH_SHORT).show()
+                    );
+                } else {
+                    AppExecutors.getInstance().mainThread().execute(() -> {
                         Toast.makeText(this, response.getMessage(), Toast.LENGTH_SHORT).show();
-                    }
-                });
+                        declineFailed();
+                    });
+                }
 
             } catch (Exception e) {
                 Log.e(TAG, "Error declining invitation", e);
+                AppExecutors.getInstance().mainThread().execute(this::declineFailed);
             }
         });
     }
@@ -334,22 +747,38 @@ public class PairingActivity extends AppCompatActivity {
      * @param pairing the Event of pairing
      * @param player either 1 or 2
      */
-    private void beginGame(Event pairing, int player) {
+    private void beginGame(CompactEvent pairing, int player) {
         //set shouldUpdatePairing to false
         //start MainActivity and pass player as data
         shouldUpdatePairing = false;
+        // Matches still waiting behind the invitation will never be played
+        while (!deferredMatches.isEmpty()) {
+            abortMatch(deferredMatches.poll());
+        }
         Intent intent = new Intent(this, MainActivity.class);
         intent.putExtra("player", player);
-        intent.putExtra("pairing", gson.toJson(pairing));
+        intent.putExtra("pairing", gson.toJson(pairing.toEvent()));
+        // The lobby stays underneath, so the user can start or switch to other games
         startActivity(intent);
-
-        finish();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        shouldUpdatePairing = true;
+        resumeInvitationUpdates();
+        invitations.start();
+        frameTracker.start();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (matchmaking) {
+            cancelQuickMatch();
+        }
+        invitations.close();
+        frameTracker.stop();
+        frameTracker.export(this);
     }
 
     @Override
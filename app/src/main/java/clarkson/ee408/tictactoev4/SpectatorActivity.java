@@ -0,0 +1,161 @@
+package clarkson.ee408.tictactoev4;
+
+import android.graphics.Color;
+import android.graphics.Point;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Gravity;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import clarkson.ee408.tictactoev4.client.*;
+import clarkson.ee408.tictactoev4.socket.*;
+
+/**
+ * A read-only view of someone else's game. Moves are pushed by the server after a SPECTATE request and
+ * replayed on a {@link TicTacToe} engine, the board can't be touched.
+ */
+public class SpectatorActivity extends AppCompatActivity {
+
+    private static final String TAG = "SpectatorActivity";
+
+    // Only touched on the computation thread, see onBroadcast()
+    private final TicTacToe tttGame = new TicTacToe(0);
+    private int plies;
+    // Moves were missed, waiting for the catch-up frame of the new connection
+    private boolean catchingUp;
+
+    // The last rendered state of tttGame, main thread only
+    private BoardSnapshot snapshot;
+    private BoardView board;
+    private TextView status;
+    private String players;
+    private int eventId;
+    private PushChannel<MoveBroadcast> moves;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        eventId = getIntent().getIntExtra("eventId", 0);
+        snapshot = tttGame.snapshot();
+        buildGuiByCode();
+
+        moves = new PushChannel<>(Request.RequestType.SPECTATE, eventId, MoveBroadcast.class, this::onBroadcast);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        moves.start();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        moves.close();
+    }
+
+    /**
+     * Applies a pushed move, main thread
+     */
+    private void onBroadcast(MoveBroadcast broadcast) {
+        // Heartbeats and frames of another game
+        if (broadcast.getEventId() != eventId) {
+            return;
+        }
+
+        players = "X: " + broadcast.getSender() + "  O: " + broadcast.getOpponent();
+        boolean active = broadcast.isActive();
+        int[] history = broadcast.getHistory();
+        int ply = broadcast.getPly();
+        int move = broadcast.getMove();
+
+        AppExecutors.getInstance().computation().execute(() -> {
+            if (history != null) {
+                // Catch-up frame, sent again after every reconnect
+                tttGame.resetGame();
+                plies = 0;
+                catchingUp = false;
+                for (int played : history) {
+                    play(played);
+                }
+            } else if (ply == plies) {
+                play(move);
+            } else if (ply > plies && !catchingUp) {
+                // A frame was lost, resubscribing gets a new catch-up frame
+                Log.w(TAG, "Missed moves " + plies + " to " + (ply - 1) + ", reconnecting");
+                catchingUp = true;
+                moves.reconnect();
+            }
+
+            BoardSnapshot next = tttGame.snapshot();
+            AppExecutors.getInstance().mainThread().execute(() -> render(next, active));
+        });
+    }
+
+    private void play(int move) {
+        // Computation thread
+        if (move >= 0 && move < TicTacToe.SIDE * TicTacToe.SIDE) {
+            tttGame.play(move / TicTacToe.SIDE, move % TicTacToe.SIDE);
+            plies++;
+        }
+    }
+
+    /**
+     * Applies the difference between the current and {@code next} snapshot to the views. Main thread only.
+     */
+    private void render(BoardSnapshot next, boolean active) {
+        if (next.getCells() != snapshot.getCells()) {
+            for (int row = 0; row < TicTacToe.SIDE; row++)
+                for (int col = 0; col < TicTacToe.SIDE; col++)
+                    if (next.getCell(row, col) != snapshot.getCell(row, col))
+                        board.setMark(row, col, next.getCell(row, col));
+        }
+        snapshot = next;
+
+        if (next.getWinner() > 0) {
+            status.setText((next.getWinner() == 1 ? "X" : "O") + " won\n" + players);
+            status.setBackgroundColor(Color.LTGRAY);
+        } else if (next.isGameOver()) {
+            status.setText("Tie Game\n" + players);
+            status.setBackgroundColor(Color.LTGRAY);
+        } else if (!active) {
+            status.setText("Game ended\n" + players);
+            status.setBackgroundColor(Color.RED);
+        } else {
+            status.setText((next.getTurn() == 1 ? "X" : "O") + " to play\n" + players);
+            status.setBackgroundColor(Color.GREEN);
+        }
+    }
+
+    public void buildGuiByCode() {
+        // Get width of the screen
+        Point size = new Point();
+        getWindowManager().getDefaultDisplay().getSize(size);
+        int w = size.x / TicTacToe.SIDE;
+
+        // Create the layout manager as a vertical LinearLayout
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
+
+        // Read only, the board never takes a tap
+        board = new BoardView(this);
+        board.setEnabled(false);
+        layout.addView(board, new LinearLayout.LayoutParams(TicTacToe.SIDE * w, TicTacToe.SIDE * w));
+
+        // set up status' characteristics
+        status = new TextView(this);
+        status.setGravity(Gravity.CENTER);
+        status.setBackgroundColor(Color.LTGRAY);
+        status.setTextSize((int) (w * .1));
+        status.setText("Waiting for game " + eventId);
+
+        layout.addView(status, new LinearLayout.LayoutParams(TicTacToe.SIDE * w, w));
+
+        // Set layout as the View of this Activity
+        setContentView(layout);
+    }
+}
@@ -1,10 +1,20 @@
 package clarkson.ee408.tictactoev4;
 
+import clarkson.ee408.tictactoev4.game.RuleEngine;
+import clarkson.ee408.tictactoev4.game.Zobrist;
+
 public class TicTacToe {
     public static final int SIDE = 3;
     private final int[][] game;
     private int turn;
     private int player;
+    // Zobrist hash of game, kept up to date by play() and resetGame()
+    private long hash;
+    // Cells in the order they were played: moves[0, history) are on the board, moves[history, redoable)
+    // were taken back by undo() and can be replayed by redo()
+    private final int[] moves = new int[SIDE * SIDE];
+    private int history;
+    private int redoable;
 
     /**
      * Creates a new TicTacToe game board with the given {@code player}.
@@ -18,11 +28,28 @@ public class TicTacToe {
         resetGame();
     }
 
+    /**
+     * Checks whether the player whose turn it is may play a cell, without playing it.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return {@link RuleEngine#OK} or the reason the move is illegal
+     */
+    public int check(int row, int col) {
+        if (row < 0 || col < 0 || row >= SIDE || col >= SIDE) {
+            return RuleEngine.OUT_OF_RANGE;
+        }
+        return RuleEngine.validate(getBoard(), row * SIDE + col, turn, RuleEngine.ANY_PLY);
+    }
+
     public int play(int row, int col) {
         int currentTurn = turn;
         if (row >= 0 && col >= 0 && row < SIDE && col < SIDE
                 && game[row][col] == 0) {
             game[row][col] = turn;
+            hash ^= Zobrist.key(row * SIDE + col, turn);
+            moves[history++] = row * SIDE + col;
+            redoable = history;
             if (turn == 1)
                 turn = 2;
             else
@@ -89,6 +116,57 @@ public class TicTacToe {
             for (int col = 0; col < SIDE; col++)
                 game[row][col] = 0;
         turn = 1;
+        hash = 0;
+        history = 0;
+        redoable = 0;
+    }
+
+    /**
+     * Takes back the last move played since the last {@link #resetGame()} or {@link #restore(int)}.
+     *
+     * @return false if there is no move to take back
+     */
+    public boolean undo() {
+        if (history == 0)
+            return false;
+        int cell = moves[--history];
+        int mark = game[cell / SIDE][cell % SIDE];
+        game[cell / SIDE][cell % SIDE] = 0;
+        hash ^= Zobrist.key(cell, mark);
+        turn = mark;
+        return true;
+    }
+
+    /**
+     * Plays again the last move taken back by {@link #undo()}, as long as no other move was played since.
+     *
+     * @return false if there is no move to replay
+     */
+    public boolean redo() {
+        if (history == redoable)
+            return false;
+        // play() forgets the moves after the one it plays, keep them
+        int keep = redoable;
+        int cell = moves[history];
+        play(cell / SIDE, cell % SIDE);
+        redoable = keep;
+        return true;
+    }
+
+    /**
+     * Replaces the whole board at once, used to resync with the server's copy. The order of the moves is not
+     * known, so they can't be taken back.
+     *
+     * @param board the packed board, see {@link #getBoard()}, must pass {@link RuleEngine#isValid(int)}
+     */
+    public void restore(int board) {
+        for (int row = 0; row < SIDE; row++)
+            for (int col = 0; col < SIDE; col++)
+                game[row][col] = cellOf(board, row, col);
+        turn = RuleEngine.turn(board);
+        hash = Zobrist.hash(board);
+        history = 0;
+        redoable = 0;
     }
 
     public String result() {
@@ -125,6 +203,61 @@ public class TicTacToe {
         this.player = player;
     }
 
+    /**
+     * Returns the mark on a cell.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the player number, 0 if the cell is empty
+     */
+    public int getCell(int row, int col) {
+        return this.game[row][col];
+    }
+
+    /**
+     * Returns the board packed two bits per cell, row-major, cell (0, 0) in the lowest bits.
+     * Fits an int as long as {@link #SIDE} is at most 4.
+     *
+     * @return the packed board
+     */
+    public int getBoard() {
+        int cells = 0;
+        for (int row = SIDE - 1; row >= 0; row--)
+            for (int col = SIDE - 1; col >= 0; col--)
+                cells = (cells << 2) | game[row][col];
+        return cells;
+    }
+
+    /**
+     * Returns the mark on a cell of a board packed by {@link #getBoard()}.
+     *
+     * @param cells the packed board
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the player number, 0 if the cell is empty
+     */
+    public static int cellOf(int cells, int row, int col) {
+        return (cells >>> (2 * (row * SIDE + col))) & 0x3;
+    }
+
+    /**
+     * Takes an immutable snapshot of the game, to be handed to another thread.
+     *
+     * @return the snapshot
+     */
+    public BoardSnapshot snapshot() {
+        return new BoardSnapshot(getBoard(), hash, turn, player, whoWon(), isGameOver(), result());
+    }
+
+    /**
+     * Returns the Zobrist hash of the board, see {@link Zobrist}.
+     *
+     * @return the hash, 0 for the empty board
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
     /**
      * Gets which player number currently owns the board and can make a move.
      *
@@ -33,10 +33,11 @@ import java.util.concurrent.Executors;
 public class AppExecutors {
 
     private static final Object LOCK = new Object();
-    private static AppExecutors sInstance;
+    private static volatile AppExecutors sInstance;
     private final Executor diskIO;
     private final Executor mainThread;
     private final Executor networkIO;
+    private final Executor computation;
 
     /**
      * A private constructor that instantiate the class and set attributes
@@ -45,11 +46,13 @@ public class AppExecutors {
      * @param diskIO Executor for disk I/O threads (e.g., save or read files, query local database)
      * @param networkIO Executor for network I/O threads (e.g., communicate with the internet)
      * @param mainThread Executor for the main thread (e.g., change text on the user interface)
+     * @param computation Executor for CPU-bound work kept off the main thread (e.g., evaluate the game board)
      */
-    private AppExecutors(Executor diskIO, Executor networkIO, Executor mainThread) {
+    private AppExecutors(Executor diskIO, Executor networkIO, Executor mainThread, Executor computation) {
         this.diskIO = diskIO;
         this.networkIO = networkIO;
         this.mainThread = mainThread;
+        this.computation = computation;
     }
 
     /**
@@ -60,9 +63,12 @@ public class AppExecutors {
     public static AppExecutors getInstance() {
         if (sInstance == null) {
             synchronized (LOCK) {
-                sInstance = new AppExecutors(Executors.newSingleThreadExecutor(),
-                        Executors.newFixedThreadPool(3),
-                        new MainThreadExecutor());
+                if (sInstance == null) {
+                    sInstance = new AppExecutors(Executors.newSingleThreadExecutor(),
+                            Executors.newFixedThreadPool(3),
+                            new MainThreadExecutor(),
+                            Executors.newSingleThreadExecutor());
+                }
             }
         }
         return sInstance;
@@ -92,6 +98,15 @@ public class AppExecutors {
         return networkIO;
     }
 
+    /**
+     * Getter for computation thread executor.
+     * It is single threaded, so state only touched from it (like the game engine) needs no locking
+     * @return computation thread executor
+     */
+    public Executor computation() {
+        return computation;
+    }
+
     /**
      * A subclass that links main thread executor a main looper of the Android application
      */
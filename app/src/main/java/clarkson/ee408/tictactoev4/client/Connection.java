@@ -0,0 +1,129 @@
+package clarkson.ee408.tictactoev4.client;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * One socket connection to a game server node and its I/O streams. Not thread safe, {@link SocketClient}
+ * serializes access to all of its connections.
+ */
+final class Connection implements Closeable {
+
+    private final Endpoint endpoint;
+    private final Socket socket;
+    private final FrameCodec codec;
+
+    private Connection(Endpoint endpoint, Socket socket) throws IOException {
+        this.endpoint = endpoint;
+        this.socket = socket;
+        this.codec = new FrameCodec(new DataInputStream(socket.getInputStream()),
+                new DataOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Connects to {@code endpoint}.
+     *
+     * @param endpoint the node to connect to
+     * @param connectTimeout how long to wait for the TCP handshake, in milliseconds
+     * @param readTimeout how long to wait for a response, in milliseconds
+     * @return the open connection
+     * @throws IOException if the node can't be reached
+     */
+    static Connection open(Endpoint endpoint, int connectTimeout, int readTimeout) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(endpoint.getHost(), endpoint.getPort()), connectTimeout);
+
+            // Don't want to wait forever for input from the server
+            socket.setSoTimeout(readTimeout);
+            return new Connection(endpoint, socket);
+        } catch (IOException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the node this connection talks to.
+     *
+     * @return the endpoint
+     */
+    Endpoint getEndpoint() {
+        return this.endpoint;
+    }
+
+    /**
+     * Whether the connection can still be used.
+     *
+     * @return false once the connection was closed
+     */
+    boolean isOpen() {
+        return !this.socket.isClosed();
+    }
+
+    /**
+     * Sends a JSON request and waits for the JSON response.
+     *
+     * @param requestJson the request
+     * @return the response
+     * @throws IOException on errors communicating with the server
+     */
+    String exchange(String requestJson) throws IOException {
+        this.codec.write(requestJson);
+
+        // Wait for a JSON response
+        return this.codec.read();
+    }
+
+    /**
+     * Sends an already serialized request.
+     *
+     * @param requestJson the request as UTF-8 JSON, see {@link FrameCodec#write(byte[], int)}
+     * @throws IOException on errors communicating with the server
+     */
+    void write(byte[] requestJson) throws IOException {
+        this.codec.write(requestJson, requestJson.length);
+    }
+
+    /**
+     * Waits for a response and reads its raw bytes into {@link #getReceiveBuffer()} without allocating a {@code String}.
+     *
+     * @return the number of bytes read
+     * @throws IOException on errors communicating with the server
+     */
+    int readFrame() throws IOException {
+        return this.codec.readFrame();
+    }
+
+    /**
+     * Returns the buffer filled by {@link #readFrame()}.
+     *
+     * @return the receive buffer
+     */
+    byte[] getReceiveBuffer() {
+        return this.codec.getReceiveBuffer();
+    }
+
+    /**
+     * Returns the framing codec of this connection, to switch it to extended framing.
+     *
+     * @return the codec
+     */
+    FrameCodec getCodec() {
+        return this.codec;
+    }
+
+    @Override
+    public void close() {
+        this.codec.close();
+        try {
+            this.socket.close();
+        } catch (IOException ex) {
+            // nom-nom the exception
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package clarkson.ee408.tictactoev4.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable consistent-hash ring over game server nodes. Each node is placed on the ring many times
+ * (virtual nodes) so keys spread evenly, and adding or removing a node only moves the keys next to it.
+ */
+public final class ConsistentHashRing {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private final TreeMap<Long, Endpoint> ring;
+
+    /**
+     * Creates a ring over {@code nodes}.
+     *
+     * @param nodes the game server nodes
+     */
+    public ConsistentHashRing(Collection<Endpoint> nodes) {
+        this.ring = new TreeMap<>();
+        for (Endpoint node : nodes) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                this.ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * Returns the node that owns {@code key}, the first node clockwise from the key's position.
+     *
+     * @param key the routing key, e.g. an {@code eventId}
+     * @return the owning node, or null if the ring is empty
+     */
+    public Endpoint locate(int key) {
+        if (this.ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, Endpoint> entry = this.ring.ceilingEntry(mix(key));
+        return (entry != null ? entry : this.ring.firstEntry()).getValue();
+    }
+
+    /**
+     * Returns the number of distinct nodes on the ring.
+     *
+     * @return the node count
+     */
+    public int size() {
+        return this.ring.size() / VIRTUAL_NODES;
+    }
+
+    /**
+     * 64-bit FNV-1a, stable across processes and platforms so every client builds the same ring.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix64(hash);
+    }
+
+    /**
+     * Spreads sequential keys such as database IDs over the whole ring.
+     */
+    private static long mix(int key) {
+        return mix64(key);
+    }
+
+    /**
+     * The finalizer of MurmurHash3
+     */
+    private static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,84 @@
+package clarkson.ee408.tictactoev4.client;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Address of one game server node.
+ */
+public final class Endpoint {
+
+    private final String host;
+    private final int port;
+
+    /**
+     * Creates a new instance of {@code Endpoint}.
+     *
+     * @param host the host name or IP address of the server
+     * @param port the TCP port of the server
+     */
+    public Endpoint(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Parses an endpoint written as {@code host:port}.
+     *
+     * @param value the endpoint text
+     * @return the endpoint
+     * @throws IllegalArgumentException if {@code value} is not of the form {@code host:port}
+     */
+    public static Endpoint parse(String value) {
+        int separator = value.lastIndexOf(':');
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Invalid endpoint: " + value);
+        }
+        try {
+            return new Endpoint(value.substring(0, separator).trim(),
+                    Integer.parseInt(value.substring(separator + 1).trim()));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid endpoint: " + value, ex);
+        }
+    }
+
+    /**
+     * Returns the host name or IP address of the server.
+     *
+     * @return the host
+     */
+    public String getHost() {
+        return this.host;
+    }
+
+    /**
+     * Returns the TCP port of the server.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return this.port;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Endpoint)) {
+            return false;
+        }
+        Endpoint other = (Endpoint) obj;
+        return this.port == other.port && this.host.equals(other.host);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.host.hashCode() + this.port;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return this.host + ":" + this.port;
+    }
+}
@@ -0,0 +1,257 @@
+package clarkson.ee408.tictactoev4.client;
+
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A singleton registry of the candidate game server nodes.
+ * {@link #probe()} measures the round-trip time of a PING request to every node in parallel; {@link #getOrdered()}
+ * then lists healthy nodes fastest first, followed by the nodes that failed, so callers fail over by trying them in order.
+ * {@link #probeIfStale()} repeats the probe in the background every {@link #PROBE_INTERVAL_NANOS}, which is how a
+ * failed node that came back is marked healthy again.
+ */
+public final class EndpointRegistry {
+
+    /**
+     * Used until {@link #setEndpoints(String[])} is called
+     */
+    private static final Endpoint DEFAULT_ENDPOINT = new Endpoint("10.128.27.197", 5000);
+
+    private static final int PROBE_TIMEOUT = 2000; // 2 seconds
+    private static final long PROBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final String PING_JSON = "{\"type\":\"PING\",\"data\":null,\"sequence\":0}";
+    private static final Object LOCK_OBJECT = new Object();
+    private static final String TAG = "EndpointRegistry";
+
+    private static volatile EndpointRegistry INSTANCE;
+
+    /**
+     * Candidates in configuration order with their state
+     */
+    private final Map<Endpoint, Health> endpoints;
+
+    /**
+     * Routes game traffic by {@code eventId}, rebuilt whenever the candidates change
+     */
+    private ConsistentHashRing ring;
+
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile long lastProbeNanos;
+    private volatile boolean probed;
+
+    private EndpointRegistry() {
+        this.endpoints = new LinkedHashMap<>();
+        this.endpoints.put(DEFAULT_ENDPOINT, new Health());
+        this.ring = new ConsistentHashRing(this.endpoints.keySet());
+    }
+
+    /**
+     * Returns the only instance of {@code EndpointRegistry}.
+     *
+     * @return the {@code EndpointRegistry} instance
+     */
+    public static EndpointRegistry getInstance() {
+        if (INSTANCE == null) {
+            synchronized (LOCK_OBJECT) {
+                if (INSTANCE == null) {
+                    INSTANCE = new EndpointRegistry();
+                }
+            }
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Replaces the candidate nodes. Invalid entries are logged and skipped.
+     *
+     * @param values the nodes, each written as {@code host:port}
+     */
+    public synchronized void setEndpoints(String[] values) {
+        Map<Endpoint, Health> configured = new LinkedHashMap<>();
+        for (String value : values) {
+            try {
+                Endpoint endpoint = Endpoint.parse(value);
+                Health health = this.endpoints.get(endpoint);
+                configured.put(endpoint, health == null ? new Health() : health);
+            } catch (IllegalArgumentException ex) {
+                Log.e(TAG, "Skipping endpoint", ex);
+            }
+        }
+
+        if (!configured.isEmpty()) {
+            this.endpoints.clear();
+            this.endpoints.putAll(configured);
+            this.ring = new ConsistentHashRing(configured.keySet());
+        }
+    }
+
+    /**
+     * Returns the consistent-hash ring over every candidate node. Health is deliberately ignored,
+     * both players of an {@code Event} must agree on its owner.
+     *
+     * @return the ring
+     */
+    public synchronized ConsistentHashRing getRing() {
+        return this.ring;
+    }
+
+    /**
+     * Returns every candidate node, healthy nodes first ordered by their last measured round-trip time.
+     *
+     * @return the nodes in the order they should be tried
+     */
+    public synchronized List<Endpoint> getOrdered() {
+        List<Endpoint> ordered = new ArrayList<>(this.endpoints.keySet());
+        // Stable sort, so nodes that were never probed keep their configuration order
+        Collections.sort(ordered, (a, b) -> {
+            Health ha = this.endpoints.get(a);
+            Health hb = this.endpoints.get(b);
+            if (ha.healthy != hb.healthy) {
+                return ha.healthy ? -1 : 1;
+            }
+            return Long.compare(ha.rttNanos, hb.rttNanos);
+        });
+        return ordered;
+    }
+
+    /**
+     * Returns every candidate node in configuration order.
+     *
+     * @return the configured nodes
+     */
+    public synchronized List<Endpoint> getAll() {
+        return new ArrayList<>(this.endpoints.keySet());
+    }
+
+    /**
+     * Records that connecting to or talking with {@code endpoint} failed, so it is tried last from now on.
+     *
+     * @param endpoint the node that failed
+     */
+    public synchronized void markFailed(Endpoint endpoint) {
+        Health health = this.endpoints.get(endpoint);
+        if (health != null) {
+            health.healthy = false;
+        }
+    }
+
+    /**
+     * Records that a connection to {@code endpoint} succeeded.
+     *
+     * @param endpoint the node that answered
+     */
+    public synchronized void markHealthy(Endpoint endpoint) {
+        Health health = this.endpoints.get(endpoint);
+        if (health != null) {
+            health.healthy = true;
+        }
+    }
+
+    /**
+     * Sends a PING request to every candidate node in parallel, each on its own short-lived connection,
+     * and records the round-trip times. Blocks for at most about twice the probe timeout; must not run on the main thread.
+     */
+    public void probe() {
+        this.lastProbeNanos = System.nanoTime();
+        this.probed = true;
+
+        List<Endpoint> candidates = getAll();
+        if (candidates.size() < 2) {
+            // Nothing to choose from
+            return;
+        }
+
+        CountDownLatch done = new CountDownLatch(candidates.size());
+        for (Endpoint endpoint : candidates) {
+            // One thread per candidate, the shared network pool may be busy with the caller itself
+            Thread thread = new Thread(() -> {
+                try {
+                    long rtt = ping(endpoint);
+                    record(endpoint, rtt);
+                    Log.i(TAG, endpoint + " answered in " + rtt / 1_000_000 + " ms");
+                } catch (IOException ex) {
+                    markFailed(endpoint);
+                    Log.w(TAG, endpoint + " is unreachable", ex);
+                } finally {
+                    done.countDown();
+                }
+            }, "probe-" + endpoint);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        try {
+            done.await(2 * PROBE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts a {@link #probe()} on a network thread if the last one is older than the probe interval, so
+     * latencies stay current and nodes that failed get another chance. Returns right away.
+     */
+    public void probeIfStale() {
+        if (this.probed && System.nanoTime() - this.lastProbeNanos < PROBE_INTERVAL_NANOS) {
+            return;
+        }
+        if (!this.probing.compareAndSet(false, true)) {
+            return;
+        }
+
+        AppExecutors.getInstance().networkIO().execute(() -> {
+            try {
+                probe();
+            } finally {
+                this.probing.set(false);
+            }
+        });
+    }
+
+    private synchronized void record(Endpoint endpoint, long rttNanos) {
+        Health health = this.endpoints.get(endpoint);
+        if (health != null) {
+            health.healthy = true;
+            health.rttNanos = rttNanos;
+        }
+    }
+
+    private static long ping(Endpoint endpoint) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(endpoint.getHost(), endpoint.getPort()), PROBE_TIMEOUT);
+            socket.setSoTimeout(PROBE_TIMEOUT);
+
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+
+            // Measure the request round trip only, not the TCP handshake
+            long start = System.nanoTime();
+            output.writeUTF(PING_JSON);
+            output.flush();
+            input.readUTF();
+            return System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * The last known state of a node
+     */
+    private static class Health {
+        boolean healthy = true;
+        long rttNanos = Long.MAX_VALUE;
+    }
+}
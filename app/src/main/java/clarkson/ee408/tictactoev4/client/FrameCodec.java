@@ -0,0 +1,263 @@
+package clarkson.ee408.tictactoev4.client;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes the messages of one connection.
+ * <p>
+ * Every connection starts with the legacy framing of {@link DataOutputStream#writeUTF(String)}: a 2-byte length and
+ * modified UTF-8, at most 65,535 bytes. Once the server accepts a NEGOTIATE_FRAMING request both sides switch to
+ * extended framing: a 4-byte header (bit 31 set if the payload is compressed, bits 0-30 the payload length) followed
+ * by UTF-8 JSON. Payloads above {@link #COMPRESSION_THRESHOLD} bytes are deflated independently per frame with the
+ * preset {@link #DICTIONARY}, which holds the field names and values that make up most of our JSON.
+ * Not thread safe.
+ */
+final class FrameCodec {
+
+    /**
+     * The framing offered in the NEGOTIATE_FRAMING request
+     */
+    static final String EXTENDED_FRAMING = "deflate-v1";
+
+    /**
+     * Payloads up to this size are sent uncompressed
+     */
+    static final int COMPRESSION_THRESHOLD = 512;
+
+    /**
+     * Preset dictionary shared with the server. Deflate favours matches near the end, so the most frequent strings go last.
+     * Never change it without bumping {@link #EXTENDED_FRAMING}.
+     */
+    static final byte[] DICTIONARY = ("\"invitationResponse\":null,\"invitation\":null,\"turn\":null,\"move\":-1,"
+            + "\"status\":\"PENDING\",\"status\":\"ACCEPTED\",\"status\":\"DECLINED\",\"status\":\"PLAYING\","
+            + "{\"eventId\":,\"sender\":\"\",\"opponent\":\"\",\"active\":true,\"active\":false,"
+            + "{\"status\":\"SUCCESS\",\"message\":null,\"availableUsers\":["
+            + "{\"username\":\"\",\"password\":null,\"displayName\":\"\",\"online\":true},")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final int COMPRESSED_FLAG = 0x80000000;
+    private static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    private final DataInputStream inputStream;
+    private final DataOutputStream outputStream;
+
+    private boolean extended;
+    private Deflater deflater;
+    private Inflater inflater;
+
+    // Reused between frames, grow to the largest frame seen
+    private byte[] receiveBuffer = new byte[256];
+    private byte[] scratch = new byte[256];
+
+    FrameCodec(DataInputStream inputStream, DataOutputStream outputStream) {
+        this.inputStream = inputStream;
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Switches both directions to extended framing, after the server accepted it.
+     */
+    void useExtendedFraming() {
+        this.extended = true;
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
+        this.inflater = new Inflater();
+    }
+
+    /**
+     * Whether extended framing is in use.
+     *
+     * @return true after {@link #useExtendedFraming()}
+     */
+    boolean isExtended() {
+        return this.extended;
+    }
+
+    /**
+     * Sends one message.
+     *
+     * @param message the JSON to send
+     * @throws IOException on errors communicating with the server
+     */
+    void write(String message) throws IOException {
+        if (!this.extended) {
+            this.outputStream.writeUTF(message);
+            this.outputStream.flush();
+            return;
+        }
+
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        write(payload, payload.length);
+    }
+
+    /**
+     * Sends one message given as UTF-8 bytes, such as a prepared request.
+     * In legacy framing the bytes are sent as is, so they must not contain characters that modified UTF-8
+     * encodes differently (NUL and characters outside the Basic Multilingual Plane).
+     *
+     * @param payload the UTF-8 JSON to send
+     * @param length the number of bytes of {@code payload} to send
+     * @throws IOException on errors communicating with the server
+     */
+    void write(byte[] payload, int length) throws IOException {
+        if (!this.extended) {
+            if (length > 0xFFFF) {
+                throw new IOException("Message of " + length + " bytes needs extended framing");
+            }
+            this.outputStream.writeShort(length);
+            this.outputStream.write(payload, 0, length);
+            this.outputStream.flush();
+            return;
+        }
+
+        if (length > COMPRESSION_THRESHOLD) {
+            int compressedLength = deflate(payload, length);
+            // Incompressible payloads go out as they are
+            if (compressedLength < length) {
+                this.outputStream.writeInt(COMPRESSED_FLAG | compressedLength);
+                this.outputStream.write(this.scratch, 0, compressedLength);
+                this.outputStream.flush();
+                return;
+            }
+        }
+
+        this.outputStream.writeInt(length);
+        this.outputStream.write(payload, 0, length);
+        this.outputStream.flush();
+    }
+
+    /**
+     * Waits for one message.
+     *
+     * @return the received JSON
+     * @throws IOException on errors communicating with the server
+     */
+    String read() throws IOException {
+        if (!this.extended) {
+            return this.inputStream.readUTF();
+        }
+        int length = readFrame();
+        return new String(this.receiveBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Waits for one message and reads its bytes into {@link #getReceiveBuffer()} without allocating a {@code String}.
+     *
+     * @return the number of bytes read
+     * @throws IOException on errors communicating with the server
+     */
+    int readFrame() throws IOException {
+        if (!this.extended) {
+            int length = this.inputStream.readUnsignedShort();
+            this.receiveBuffer = ensureCapacity(this.receiveBuffer, length);
+            this.inputStream.readFully(this.receiveBuffer, 0, length);
+            return length;
+        }
+
+        int header = this.inputStream.readInt();
+        int length = header & ~COMPRESSED_FLAG;
+        if (length > MAX_FRAME_LENGTH) {
+            throw new IOException("Frame of " + length + " bytes is too large");
+        }
+
+        if ((header & COMPRESSED_FLAG) == 0) {
+            this.receiveBuffer = ensureCapacity(this.receiveBuffer, length);
+            this.inputStream.readFully(this.receiveBuffer, 0, length);
+            return length;
+        }
+
+        this.scratch = ensureCapacity(this.scratch, length);
+        this.inputStream.readFully(this.scratch, 0, length);
+        return inflate(length);
+    }
+
+    /**
+     * Returns the buffer filled by {@link #readFrame()}.
+     *
+     * @return the receive buffer
+     */
+    byte[] getReceiveBuffer() {
+        return this.receiveBuffer;
+    }
+
+    /**
+     * Releases the native memory of the compressors.
+     */
+    void close() {
+        if (this.deflater != null) {
+            this.deflater.end();
+        }
+        if (this.inflater != null) {
+            this.inflater.end();
+        }
+    }
+
+    /**
+     * Deflates {@code payload} into {@link #scratch}.
+     *
+     * @return the compressed length
+     */
+    private int deflate(byte[] payload, int length) {
+        this.deflater.reset();
+        this.deflater.setDictionary(DICTIONARY);
+        this.deflater.setInput(payload, 0, length);
+        this.deflater.finish();
+
+        // Not worth more than the raw payload, stop there
+        this.scratch = ensureCapacity(this.scratch, length);
+        int compressedLength = 0;
+        while (!this.deflater.finished() && compressedLength < length) {
+            compressedLength += this.deflater.deflate(this.scratch, compressedLength, length - compressedLength);
+        }
+        return this.deflater.finished() ? compressedLength : length;
+    }
+
+    /**
+     * Inflates the first {@code length} bytes of {@link #scratch} into {@link #receiveBuffer}.
+     *
+     * @return the uncompressed length
+     */
+    private int inflate(int length) throws IOException {
+        this.inflater.reset();
+        this.inflater.setInput(this.scratch, 0, length);
+
+        int inflated = 0;
+        try {
+            while (!this.inflater.finished()) {
+                if (inflated == this.receiveBuffer.length) {
+                    if (inflated >= MAX_FRAME_LENGTH) {
+                        throw new IOException("Inflated frame is too large");
+                    }
+                    this.receiveBuffer = ensureCapacity(this.receiveBuffer, inflated + 1);
+                }
+
+                int count = this.inflater.inflate(this.receiveBuffer, inflated, this.receiveBuffer.length - inflated);
+                if (count == 0) {
+                    if (this.inflater.needsDictionary()) {
+                        this.inflater.setDictionary(DICTIONARY);
+                    } else if (this.inflater.needsInput()) {
+                        throw new IOException("Truncated compressed frame");
+                    }
+                }
+                inflated += count;
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt compressed frame", ex);
+        }
+        return inflated;
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int length) {
+        if (length <= buffer.length) {
+            return buffer;
+        }
+        byte[] larger = new byte[Integer.highestOneBit(length) << 1];
+        System.arraycopy(buffer, 0, larger, 0, buffer.length);
+        return larger;
+    }
+}
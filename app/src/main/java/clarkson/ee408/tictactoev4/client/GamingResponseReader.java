@@ -0,0 +1,233 @@
+package clarkson.ee408.tictactoev4.client;
+
+import java.nio.charset.StandardCharsets;
+
+import clarkson.ee408.tictactoev4.socket.GamingResponse;
+import clarkson.ee408.tictactoev4.socket.Request;
+import clarkson.ee408.tictactoev4.socket.Response;
+
+/**
+ * Reads the JSON of a {@link GamingResponse} straight from the received bytes into a reused instance.
+ * Only {@code status}, {@code move}, {@code active}, {@code eventId}, {@code ply}, {@code hash}, {@code revision} and
+ * {@code proposal} are extracted; other fields are skipped without allocating. {@code message} is left null, callers that need it fall back to a full JSON parse.
+ */
+final class GamingResponseReader {
+
+    private static final byte[] STATUS = ascii("status");
+    private static final byte[] MOVE = ascii("move");
+    private static final byte[] ACTIVE = ascii("active");
+    private static final byte[] EVENT_ID = ascii("eventId");
+    private static final byte[] PLY = ascii("ply");
+    private static final byte[] HASH = ascii("hash");
+    private static final byte[] REVISION = ascii("revision");
+    private static final byte[] PROPOSAL = ascii("proposal");
+    private static final byte[] SUCCESS = ascii("SUCCESS");
+    private static final byte[] FAILURE = ascii("FAILURE");
+    private static final byte[] REDIRECT = ascii("REDIRECT");
+    private static final byte[] REMATCH = ascii("REMATCH");
+    private static final byte[] UNDO_MOVE = ascii("UNDO_MOVE");
+
+    private GamingResponseReader() {
+    }
+
+    /**
+     * Reads a JSON object from {@code buffer} into {@code into}. Fields missing from the JSON are reset to
+     * their defaults, just like a freshly deserialized object.
+     *
+     * @param buffer the received bytes
+     * @param length the number of valid bytes in {@code buffer}
+     * @param into the response to fill in
+     * @return false if the bytes are not a well-formed JSON object
+     */
+    static boolean read(byte[] buffer, int length, GamingResponse into) {
+        into.setStatus(null);
+        into.setMessage(null);
+        into.setMove(0);
+        into.setActive(false);
+        into.setEventId(0);
+        into.setPly(-1);
+        into.setHash(0);
+        into.setRevision(0);
+        into.setProposal(null);
+
+        int i = skipWhitespace(buffer, 0, length);
+        if (i >= length || buffer[i] != '{') {
+            return false;
+        }
+        i++;
+
+        while (true) {
+            i = skipWhitespace(buffer, i, length);
+            if (i >= length) {
+                return false;
+            }
+            if (buffer[i] == '}') {
+                return true;
+            }
+            if (buffer[i] == ',') {
+                i++;
+                continue;
+            }
+            if (buffer[i] != '"') {
+                return false;
+            }
+
+            // Key
+            int keyEnd = skipString(buffer, i, length);
+            if (keyEnd < 0) {
+                return false;
+            }
+            int keyStart = i + 1;
+            int keyLength = keyEnd - 1 - keyStart;
+
+            i = skipWhitespace(buffer, keyEnd, length);
+            if (i >= length || buffer[i] != ':') {
+                return false;
+            }
+
+            // Value
+            i = skipWhitespace(buffer, i + 1, length);
+            int valueEnd = skipValue(buffer, i, length);
+            if (valueEnd < 0) {
+                return false;
+            }
+
+            if (equals(buffer, keyStart, keyLength, STATUS)) {
+                if (isString(buffer, i, valueEnd, SUCCESS)) {
+                    into.setStatus(Response.ResponseStatus.SUCCESS);
+                } else if (isString(buffer, i, valueEnd, FAILURE)) {
+                    into.setStatus(Response.ResponseStatus.FAILURE);
+                } else if (isString(buffer, i, valueEnd, REDIRECT)) {
+                    into.setStatus(Response.ResponseStatus.REDIRECT);
+                }
+            } else if (equals(buffer, keyStart, keyLength, MOVE)) {
+                into.setMove(parseInt(buffer, i, valueEnd));
+            } else if (equals(buffer, keyStart, keyLength, ACTIVE)) {
+                into.setActive(buffer[i] == 't');
+            } else if (equals(buffer, keyStart, keyLength, EVENT_ID)) {
+                into.setEventId(parseInt(buffer, i, valueEnd));
+            } else if (equals(buffer, keyStart, keyLength, PLY)) {
+                into.setPly(parseInt(buffer, i, valueEnd));
+            } else if (equals(buffer, keyStart, keyLength, HASH)) {
+                into.setHash(parseLong(buffer, i, valueEnd));
+            } else if (equals(buffer, keyStart, keyLength, REVISION)) {
+                into.setRevision(parseInt(buffer, i, valueEnd));
+            } else if (equals(buffer, keyStart, keyLength, PROPOSAL)) {
+                if (isString(buffer, i, valueEnd, REMATCH)) {
+                    into.setProposal(Request.RequestType.REMATCH);
+                } else if (isString(buffer, i, valueEnd, UNDO_MOVE)) {
+                    into.setProposal(Request.RequestType.UNDO_MOVE);
+                }
+            }
+
+            i = valueEnd;
+        }
+    }
+
+    private static int skipWhitespace(byte[] buffer, int i, int length) {
+        while (i < length && (buffer[i] == ' ' || buffer[i] == '\n' || buffer[i] == '\r' || buffer[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the index right after the closing quote of the string starting at {@code i}, or -1
+     */
+    private static int skipString(byte[] buffer, int i, int length) {
+        for (int j = i + 1; j < length; j++) {
+            if (buffer[j] == '\\') {
+                j++;
+            } else if (buffer[j] == '"') {
+                return j + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index right after the value starting at {@code i}, or -1
+     */
+    private static int skipValue(byte[] buffer, int i, int length) {
+        if (i >= length) {
+            return -1;
+        }
+
+        byte first = buffer[i];
+        if (first == '"') {
+            return skipString(buffer, i, length);
+        }
+
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            while (i < length) {
+                byte b = buffer[i];
+                if (b == '"') {
+                    i = skipString(buffer, i, length);
+                    if (i < 0) {
+                        return -1;
+                    }
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                }
+                i++;
+            }
+            return -1;
+        }
+
+        // Number, true, false or null
+        while (i < length) {
+            byte b = buffer[i];
+            if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean equals(byte[] buffer, int start, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            if (buffer[start + k] != expected[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isString(byte[] buffer, int start, int end, byte[] expected) {
+        return buffer[start] == '"' && equals(buffer, start + 1, end - start - 2, expected);
+    }
+
+    private static int parseInt(byte[] buffer, int start, int end) {
+        return (int) parseLong(buffer, start, end);
+    }
+
+    private static long parseLong(byte[] buffer, int start, int end) {
+        boolean negative = buffer[start] == '-';
+        long value = 0;
+        for (int k = negative ? start + 1 : start; k < end; k++) {
+            int digit = buffer[k] - '0';
+            if (digit < 0 || digit > 9) {
+                // null, or a fraction/exponent we don't expect for a move
+                break;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,99 @@
+package clarkson.ee408.tictactoev4.client;
+
+import java.io.IOException;
+
+import clarkson.ee408.tictactoev4.socket.LeaderboardResponse;
+import clarkson.ee408.tictactoev4.socket.Request;
+import clarkson.ee408.tictactoev4.socket.Response;
+
+/**
+ * A singleton caching the last leaderboard received. Every LEADERBOARD request carries the cached version;
+ * when nothing changed the server answers with a tiny "unchanged" response and the cached players are reused.
+ */
+public final class LeaderboardCache {
+
+    private static final Object LOCK_OBJECT = new Object();
+
+    private static volatile LeaderboardCache INSTANCE;
+
+    private LeaderboardResponse cached;
+
+    private LeaderboardCache() {
+    }
+
+    /**
+     * Returns the only instance of {@code LeaderboardCache}.
+     *
+     * @return the {@code LeaderboardCache} instance
+     */
+    public static LeaderboardCache getInstance() {
+        if (INSTANCE == null) {
+            synchronized (LOCK_OBJECT) {
+                if (INSTANCE == null) {
+                    INSTANCE = new LeaderboardCache();
+                }
+            }
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the last leaderboard received, without asking the server.
+     *
+     * @return the cached leaderboard, or null
+     */
+    public synchronized LeaderboardResponse getCached() {
+        return this.cached;
+    }
+
+    /**
+     * Asks the server for the leaderboard if it changed since the cached one. Must not run on the main thread.
+     *
+     * @return the current leaderboard, or null if the server refused the request
+     * @throws IOException on errors communicating with the server
+     */
+    public LeaderboardResponse fetch() throws IOException {
+        LeaderboardResponse previous = getCached();
+        LeaderboardResponse response = request(previous == null ? 0 : previous.getVersion());
+        if (response == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (response.isUnchanged() && this.cached != null && this.cached.getVersion() == response.getVersion()) {
+                return this.cached;
+            }
+        }
+
+        if (response.isUnchanged()) {
+            // The cache changed while the request was in flight, an empty "unchanged" answer is of no use
+            response = request(0);
+            if (response == null || response.isUnchanged()) {
+                return null;
+            }
+        }
+
+        synchronized (this) {
+            // A concurrent fetch may have stored a newer leaderboard
+            if (this.cached == null || this.cached.getVersion() <= response.getVersion()) {
+                this.cached = response;
+            }
+        }
+
+        // Keep the profiles and ratings around for the lobby too
+        if (response.getTop() != null) {
+            UserCache.getInstance().resolve(response.getTop());
+        }
+        return response;
+    }
+
+    private LeaderboardResponse request(long version) throws IOException {
+        Request request = new Request(Request.RequestType.LEADERBOARD, String.valueOf(version));
+        LeaderboardResponse response = SocketClient.getInstance().sendRequest(request, LeaderboardResponse.class);
+        if (response == null || response.getStatus() != Response.ResponseStatus.SUCCESS) {
+            return null;
+        }
+        return response;
+    }
+}
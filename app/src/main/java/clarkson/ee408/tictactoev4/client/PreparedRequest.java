@@ -0,0 +1,46 @@
+package clarkson.ee408.tictactoev4.client;
+
+import clarkson.ee408.tictactoev4.socket.Request;
+
+/**
+ * A {@link Request} serialized once and sent many times as the same bytes, for requests that are repeated
+ * unchanged such as the REQUEST_MOVE poll. Create instances with {@link SocketClient#prepare(Request)}.
+ * Prepared requests are never stamped with a sequence number, their sequence stays 0.
+ */
+public final class PreparedRequest {
+
+    private final Request.RequestType type;
+    private final int eventId;
+    private final byte[] json;
+
+    PreparedRequest(Request.RequestType type, int eventId, byte[] json) {
+        this.type = type;
+        this.eventId = eventId;
+        this.json = json;
+    }
+
+    /**
+     * Returns the type of the prepared request.
+     *
+     * @return the request type
+     */
+    public Request.RequestType getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the event the prepared request belongs to.
+     *
+     * @return the eventId, 0 if none
+     */
+    public int getEventId() {
+        return this.eventId;
+    }
+
+    /**
+     * The serialized request as UTF-8 JSON, framed by the connection it is sent on
+     */
+    byte[] getJson() {
+        return this.json;
+    }
+}
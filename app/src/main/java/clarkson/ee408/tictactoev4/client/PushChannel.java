@@ -0,0 +1,224 @@
+package clarkson.ee408.tictactoev4.client;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+
+import java.io.IOException;
+import java.util.List;
+
+import clarkson.ee408.tictactoev4.socket.Request;
+import clarkson.ee408.tictactoev4.socket.Response;
+
+/**
+ * A subscription to messages the server pushes without being asked, such as game invitations.
+ * <p>
+ * The channel uses its own connection and thread, so a pushed message is delivered as soon as it arrives and never
+ * waits behind (or blocks) the request/response traffic of {@link SocketClient}. After the framing is negotiated the
+ * subscribe request is sent once, with the current session token as data; from then on every frame the server writes
+ * is a {@code T}, delivered to the listener on the main thread. The server writes a heartbeat (a SUCCESS response
+ * without payload) at least every {@link #HEARTBEAT_TIMEOUT} / 2 milliseconds, so a silent connection is known to be
+ * dead and is reopened with backoff.
+ *
+ * @param <T> the type of the pushed messages
+ */
+public final class PushChannel<T extends Response> {
+
+    /**
+     * A connection that stays silent for this long is considered dead
+     */
+    public static final int HEARTBEAT_TIMEOUT = 60000; // 60 seconds
+
+    private static final int CONNECT_TIMEOUT = 5000; // 5 seconds
+    private static final long MIN_BACKOFF = 1000;
+    private static final long MAX_BACKOFF = 30000;
+    private static final String TAG = "PushChannel";
+
+    private final Gson gson;
+    private final Request.RequestType subscribe;
+    private final int eventId;
+    private final Class<T> messageClass;
+    private final Listener<T> listener;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    // The thread of the current run, a run whose thread was replaced by close() and start() stops on its own
+    private volatile Thread thread;
+
+    /**
+     * Creates a new instance of {@code PushChannel}. Nothing is sent until {@link #start()}.
+     *
+     * @param subscribe the type of the request that starts the subscription, sent again after every reconnect
+     * @param messageClass the class of T
+     * @param listener notified of every pushed message, on the main thread
+     */
+    public PushChannel(Request.RequestType subscribe, Class<T> messageClass, Listener<T> listener) {
+        this(subscribe, 0, messageClass, listener);
+    }
+
+    /**
+     * Creates a new instance of {@code PushChannel} subscribed to a single event. Nothing is sent until {@link #start()}.
+     *
+     * @param subscribe the type of the request that starts the subscription, sent again after every reconnect
+     * @param eventId the event the subscription is about, set as {@link Request#getEventId()}
+     * @param messageClass the class of T
+     * @param listener notified of every pushed message, on the main thread
+     */
+    public PushChannel(Request.RequestType subscribe, int eventId, Class<T> messageClass, Listener<T> listener) {
+        this.gson = new GsonBuilder().serializeNulls().create();
+        this.subscribe = subscribe;
+        this.eventId = eventId;
+        this.messageClass = messageClass;
+        this.listener = listener;
+    }
+
+    /**
+     * Opens the subscription on a background thread. Does nothing if it is already open.
+     */
+    public synchronized void start() {
+        if (this.running) {
+            return;
+        }
+        this.running = true;
+        this.thread = new Thread(this::run, "push-" + this.subscribe);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Ends the subscription and closes its connection.
+     */
+    public synchronized void close() {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+
+        // Unblocks the read in progress
+        Connection current = this.connection;
+        if (current != null) {
+            current.close();
+        }
+        this.thread.interrupt();
+        this.thread = null;
+    }
+
+    /**
+     * Drops the current connection, so the subscription is sent again on a new one after the usual backoff.
+     * Used to get a fresh catch-up frame after missing a message. Does nothing if no connection is open.
+     */
+    public void reconnect() {
+        Connection current = this.connection;
+        if (this.running && current != null) {
+            // Fails the read in progress, run() reconnects
+            current.close();
+        }
+    }
+
+    private void run() {
+        Thread self = Thread.currentThread();
+        long backoff = MIN_BACKOFF;
+        while (this.thread == self) {
+            Connection current = null;
+            try {
+                current = open();
+                synchronized (this) {
+                    if (this.thread != self) {
+                        // close() ran while we were connecting
+                        break;
+                    }
+                    this.connection = current;
+                }
+                subscribe(current);
+                backoff = MIN_BACKOFF;
+
+                while (this.thread == self) {
+                    T message = parse(current.getCodec().read());
+                    if (message != null) {
+                        AppExecutors.getInstance().mainThread().execute(() -> {
+                            if (this.thread == self) {
+                                this.listener.onMessage(message);
+                            }
+                        });
+                    }
+                }
+            } catch (IOException ex) {
+                if (this.thread == self) {
+                    Log.w(TAG, this.subscribe + " lost, reconnecting in " + backoff + " ms", ex);
+                }
+            } finally {
+                if (current != null) {
+                    current.close();
+                    synchronized (this) {
+                        // A newer run may have opened its own connection already
+                        if (this.connection == current) {
+                            this.connection = null;
+                        }
+                    }
+                }
+            }
+
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException ex) {
+                break;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        }
+    }
+
+    private Connection open() throws IOException {
+        // Any node can serve the subscription, the server forwards pushes to the node holding it
+        List<Endpoint> candidates = EndpointRegistry.getInstance().getOrdered();
+        if (candidates.isEmpty()) {
+            throw new IOException("No server endpoint configured");
+        }
+        return Connection.open(candidates.get(0), CONNECT_TIMEOUT, HEARTBEAT_TIMEOUT);
+    }
+
+    private void subscribe(Connection connection) throws IOException {
+        Request negotiate = new Request(Request.RequestType.NEGOTIATE_FRAMING, FrameCodec.EXTENDED_FRAMING);
+        Response framing = parseResponse(connection.exchange(this.gson.toJson(negotiate)));
+        if (framing != null && framing.getStatus() == Response.ResponseStatus.SUCCESS) {
+            connection.getCodec().useExtendedFraming();
+        }
+
+        // The token may have been rotated since the last connect
+        Request request = new Request(this.subscribe, SocketClient.getInstance().getSessionToken());
+        request.setEventId(this.eventId);
+        Response response = parseResponse(connection.exchange(this.gson.toJson(request)));
+        if (response == null || response.getStatus() != Response.ResponseStatus.SUCCESS) {
+            throw new IOException("Subscription refused: " + (response == null ? null : response.getMessage()));
+        }
+        Log.i(TAG, this.subscribe + " subscribed on " + connection.getEndpoint());
+    }
+
+    private T parse(String message) {
+        try {
+            return this.gson.fromJson(message, this.messageClass);
+        } catch (JsonSyntaxException ex) {
+            Log.e(TAG, "Error deserializing JSON", ex);
+            return null;
+        }
+    }
+
+    private Response parseResponse(String message) {
+        try {
+            return this.gson.fromJson(message, Response.class);
+        } catch (JsonSyntaxException ex) {
+            Log.e(TAG, "Error deserializing JSON", ex);
+            return null;
+        }
+    }
+
+    /**
+     * An interface for the pushed message listener
+     *
+     * @param <T> the type of the pushed messages
+     */
+    public interface Listener<T> {
+        void onMessage(T message);
+    }
+}
@@ -0,0 +1,268 @@
+package clarkson.ee408.tictactoev4.client;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import clarkson.ee408.tictactoev4.socket.Request;
+
+/**
+ * A singleton store-and-forward journal for requests that failed to reach the server.
+ * Only requests that are safe to replay are journaled. Entries are kept in the order they were sent,
+ * persisted on the {@link AppExecutors#diskIO()} thread and replayed by {@link SocketClient} once a connection is
+ * authenticated. An entry only leaves the journal when the server accepted it or reported it as a duplicate.
+ */
+public final class RequestJournal {
+
+    private static final String FILE_NAME = "request_journal.json";
+    private static final Object LOCK_OBJECT = new Object();
+    private static final String TAG = "RequestJournal";
+
+    /**
+     * The message of the FAILURE response to a replayed request whose sequence number the server already processed
+     */
+    public static final String DUPLICATE = "DUPLICATE";
+
+    private static RequestJournal INSTANCE;
+
+    private final Gson gson;
+
+    /**
+     * Pending requests keyed by {@link Request#getSequence()}, in the order they were appended
+     */
+    private final LinkedHashMap<Long, Request> pending;
+    private final CountDownLatch loaded;
+
+    private long lastSequence;
+    private File file;
+
+    private RequestJournal() {
+        this.gson = new GsonBuilder().serializeNulls().create();
+        this.pending = new LinkedHashMap<>();
+        this.loaded = new CountDownLatch(1);
+
+        // The persisted high-water mark is only known once load() finished. Starting from the clock keeps the
+        // numbers of this process above those of any previous one in the meantime, so a request stamped before
+        // the load never reuses the sequence number of a journaled one
+        this.lastSequence = System.currentTimeMillis() * 1000;
+    }
+
+    /**
+     * Returns the only instance of {@code RequestJournal}.
+     *
+     * @return the {@code RequestJournal} instance
+     */
+    public static RequestJournal getInstance() {
+        if (INSTANCE == null) {
+            synchronized (LOCK_OBJECT) {
+                if (INSTANCE == null) {
+                    INSTANCE = new RequestJournal();
+                }
+            }
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Whether requests of the given type are idempotent on the server and may be journaled and replayed.
+     *
+     * @param type the request type
+     * @return true if the request can be replayed after a failure
+     */
+    public static boolean isJournaled(Request.RequestType type) {
+        if (type == null) {
+            return false;
+        }
+        switch (type) {
+            case SEND_MOVE:
+            case COMPLETE_GAME:
+            case ACKNOWLEDGE_RESPONSE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Loads the journal persisted by a previous run of the application. Reading happens on the disk thread.
+     *
+     * @param context any context, only used to locate the application's files directory
+     */
+    public void load(Context context) {
+        File journalFile = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            State state = read(journalFile);
+
+            boolean merged;
+            synchronized (this) {
+                this.file = journalFile;
+                merged = state != null && !this.pending.isEmpty();
+                if (state != null) {
+                    this.lastSequence = Math.max(this.lastSequence, state.lastSequence);
+                    if (state.requests != null) {
+                        // Entries of the previous run go first, they were sent before anything of this one
+                        LinkedHashMap<Long, Request> current = new LinkedHashMap<>(this.pending);
+                        this.pending.clear();
+                        for (Request request : state.requests) {
+                            this.pending.put(request.getSequence(), request);
+                        }
+                        this.pending.putAll(current);
+                    }
+                    Log.i(TAG, "Loaded " + this.pending.size() + " journaled request(s)");
+                }
+            }
+            this.loaded.countDown();
+
+            // Requests journaled before the file was known only live in memory so far
+            if (merged) {
+                persist();
+            }
+        });
+    }
+
+    /**
+     * Waits for {@link #load(Context)} to finish, so a replay doesn't miss the entries of a previous run.
+     * Never call it on the main thread.
+     *
+     * @param timeoutMillis the longest time to wait
+     * @return false if the journal is not loaded yet
+     */
+    public boolean awaitLoaded(long timeoutMillis) {
+        try {
+            return this.loaded.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Assigns the next sequence number to {@code request} unless it already has one.
+     *
+     * @param request the request about to be sent
+     */
+    public synchronized void stamp(Request request) {
+        if (request.getSequence() == 0) {
+            request.setSequence(++this.lastSequence);
+        }
+    }
+
+    /**
+     * Appends {@code request} to the journal. Appending a request whose sequence number is
+     * already journaled is a no-op, so callers may safely append the same request more than once.
+     *
+     * @param request the request to replay on reconnect
+     */
+    public void append(Request request) {
+        if (!isJournaled(request.getType())) {
+            return;
+        }
+
+        synchronized (this) {
+            stamp(request);
+            if (this.pending.containsKey(request.getSequence())) {
+                return;
+            }
+            this.pending.put(request.getSequence(), request);
+            Log.i(TAG, "Journaled " + request.getType() + " #" + request.getSequence());
+        }
+        persist();
+    }
+
+    /**
+     * Removes a replayed request from the journal, once the server accepted it or reported it as a duplicate.
+     *
+     * @param sequence the sequence number of the request
+     */
+    public void remove(long sequence) {
+        synchronized (this) {
+            if (this.pending.remove(sequence) == null) {
+                return;
+            }
+        }
+        persist();
+    }
+
+    /**
+     * Returns the pending requests in the order they have to be replayed.
+     *
+     * @return a copy of the pending requests
+     */
+    public synchronized List<Request> snapshot() {
+        return new ArrayList<>(this.pending.values());
+    }
+
+    private void persist() {
+        File journalFile;
+        State state = new State();
+        synchronized (this) {
+            journalFile = this.file;
+            state.lastSequence = this.lastSequence;
+            state.requests = new ArrayList<>(this.pending.values());
+        }
+
+        // Not loaded yet, the journal lives in memory until then
+        if (journalFile == null) {
+            return;
+        }
+
+        // The disk executor is single threaded, so writes land in the order they were issued
+        AppExecutors.getInstance().diskIO().execute(() -> write(journalFile, state));
+    }
+
+    private State read(File journalFile) {
+        if (!journalFile.exists()) {
+            return null;
+        }
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8)) {
+            return this.gson.fromJson(reader, State.class);
+        } catch (IOException | JsonParseException ex) {
+            Log.e(TAG, "Error reading request journal", ex);
+            return null;
+        }
+    }
+
+    private void write(File journalFile, State state) {
+        // Write to a temporary file first so a crash never leaves a half-written journal behind
+        File temp = new File(journalFile.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            this.gson.toJson(state, writer);
+        } catch (IOException ex) {
+            Log.e(TAG, "Error writing request journal", ex);
+            return;
+        }
+
+        if (!temp.renameTo(journalFile)) {
+            Log.e(TAG, "Error replacing request journal");
+        }
+    }
+
+    /**
+     * The persisted form of the journal
+     */
+    private static class State {
+        long lastSequence;
+        List<Request> requests;
+    }
+}
@@ -6,54 +6,84 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
 
-import java.io.Closeable;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import clarkson.ee408.tictactoev4.model.Event;
+import clarkson.ee408.tictactoev4.perf.StartupTimer;
+import clarkson.ee408.tictactoev4.socket.GamingResponse;
+import clarkson.ee408.tictactoev4.socket.LoginResponse;
 import clarkson.ee408.tictactoev4.socket.Request;
 import clarkson.ee408.tictactoev4.socket.Response;
 
 /**
  * A singleton class that helps the Android application connect to the socket server.
+ * Lobby requests go over the primary connection to the fastest node. Requests that carry an {@code eventId}
+ * are routed to the node owning that event on a consistent-hash ring, so both players of a game reach the same node.
  */
 public final class SocketClient {
 
     private static final Object CONNECTION_LOCK_OBJECT = new Object();
     private static final Object LOCK_OBJECT = new Object();
-    private static final String SERVER_HOST = "10.128.27.197";
-    private static final int SERVER_PORT = 5000;
+    private static final int CONNECT_TIMEOUT = 5000; // 5 seconds
     private static final int SOCKET_TIMEOUT = 10000; // 10 seconds
+    private static final int JOURNAL_LOAD_TIMEOUT = 2000; // 2 seconds
     private static final String TAG = "SocketClient";
 
-    private static SocketClient INSTANCE;
+    private static volatile SocketClient INSTANCE;
 
     private final Gson gson;
+    private final RequestJournal journal;
+    private final EndpointRegistry endpoints;
 
-    private Socket socket;
-    private DataInputStream inputStream;
-    private DataOutputStream outputStream;
+    // Connections to the nodes owning events, other than the primary node
+    private final Map<Endpoint, Connection> routed;
+
+    // Owners learned from REDIRECT responses, they win over the ring
+    private final Map<Integer, Endpoint> redirects;
+
+    // Connection of each request of a sendPreparedAll() batch, reused between polls
+    private Connection[] pipelines = new Connection[0];
+
+    private Connection primary;
+    private String sessionToken;
+    private SessionListener sessionListener;
 
     private SocketClient() {
         this.gson = new GsonBuilder().serializeNulls().create();
+        this.journal = RequestJournal.getInstance();
+        this.endpoints = EndpointRegistry.getInstance();
+        this.routed = new HashMap<>();
+        this.redirects = new HashMap<>();
     }
 
     /**
-     * Close the socket connection and all I/O streams.
+     * Close all socket connections and their I/O streams.
      */
     public void close() {
         synchronized (CONNECTION_LOCK_OBJECT) {
-            quietClose(this.inputStream);
-            quietClose(this.outputStream);
-            quietClose(this.socket);
+            if (this.primary != null) {
+                this.primary.close();
+                this.primary = null;
+            }
+            for (Connection connection : this.routed.values()) {
+                connection.close();
+            }
+            this.routed.clear();
             Log.i(TAG, "Connection closed");
         }
     }
 
     /**
      * Sends a {@code Request} to the server serialized as JSON and returns the response deserialized as {@code responseClass}.
+     * If the request fails with an {@code IOException} and its type is journaled (see {@link RequestJournal#isJournaled}),
+     * it is stored and replayed in order the next time an authenticated connection is established.
+     * A request with an {@code eventId} goes to the node owning the event; a REDIRECT response is followed once.
      *
      * @param request the object to serialize and send to the server
      * @param responseClass the class of T
@@ -66,27 +96,247 @@ public final class SocketClient {
             throws IOException {
 
         synchronized (CONNECTION_LOCK_OBJECT) {
-            // Open the connection to the server
-            connect();
+            this.journal.stamp(request);
 
-            // Serialize the request to JSON and send it to the server
-            String requestJson = this.gson.toJson(request);
-            this.outputStream.writeUTF(requestJson);
-            this.outputStream.flush();
+            Connection connection = null;
+            try {
+                // Open the connection to the server
+                connection = connectionFor(request.getEventId());
+
+                // Serialize the request to JSON, send it to the server and deserialize the received JSON
+                String requestJson = this.gson.toJson(request);
+                T response = parse(connection.exchange(requestJson), responseClass);
+
+                if (followRedirect(request.getEventId(), response)) {
+                    connection = connectionFor(request.getEventId());
+                    response = parse(connection.exchange(requestJson), responseClass);
+                }
+                return response;
+            } catch (IOException ex) {
+                // The connection can't be trusted anymore, force a reconnect (to the next node) on the next request
+                drop(connection);
+                this.journal.append(request);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Builds the client, its JSON adapters and the server connection on a network thread, so the first
+     * request doesn't pay for them. Call it as early as possible during startup.
+     */
+    public static void prewarm() {
+        AppExecutors.getInstance().networkIO().execute(() -> getInstance().warmUp());
+    }
+
+    private void warmUp() {
+        // Gson builds its reflective adapters lazily on first use of each class
+        this.gson.getAdapter(Request.class);
+        this.gson.getAdapter(Response.class);
+        this.gson.getAdapter(LoginResponse.class);
+
+        // Pick the fastest node before the first connection is made
+        this.endpoints.probe();
+
+        synchronized (CONNECTION_LOCK_OBJECT) {
+            try {
+                primary();
+                StartupTimer.mark(StartupTimer.CONNECTION_WARM);
+            } catch (IOException ex) {
+                // Not fatal, the first request connects again
+                drop(this.primary);
+                Log.w(TAG, "Could not pre-warm the connection", ex);
+            }
+        }
+    }
 
-            // Wait for a JSON response
-            String response = this.inputStream.readUTF();
+    /**
+     * Serializes {@code request} once so it can be sent repeatedly with {@link #sendPrepared}.
+     *
+     * @param request the request to prepare, must not be modified afterwards
+     * @return the prepared request
+     */
+    public PreparedRequest prepare(Request request) {
+        byte[] json = this.gson.toJson(request).getBytes(StandardCharsets.UTF_8);
+        return new PreparedRequest(request.getType(), request.getEventId(), json);
+    }
 
-            // Deserialize the received JSON
+    /**
+     * Sends a prepared request and reads the {@code GamingResponse} into {@code into} instead of allocating
+     * a new response. In the steady state (successful response for an active game) this doesn't allocate.
+     *
+     * @param request the prepared request
+     * @param into the response instance to fill in
+     * @return false if the response is empty, invalid JSON or about another event
+     * @throws IOException on errors connecting or communicating with the server
+     */
+    public boolean sendPrepared(PreparedRequest request, GamingResponse into) throws IOException {
+        synchronized (CONNECTION_LOCK_OBJECT) {
+            Connection connection = null;
             try {
-                return this.gson.fromJson(response, responseClass);
-            } catch (JsonSyntaxException ex) {
-                Log.e(TAG, "Error deserializing JSON", ex);
-                return null;
+                connection = connectionFor(request.getEventId());
+                if (!exchangePrepared(connection, request, into) || !matches(request, into)) {
+                    return false;
+                }
+
+                if (followRedirect(request.getEventId(), into)) {
+                    connection = connectionFor(request.getEventId());
+                    return exchangePrepared(connection, request, into) && matches(request, into);
+                }
+                return true;
+            } catch (IOException ex) {
+                drop(connection);
+                throw ex;
             }
         }
     }
 
+    /**
+     * Sends several prepared requests, typically the REQUEST_MOVE polls of concurrent games, and reads each
+     * {@code GamingResponse} into the instance at the same index. Requests going to the same node are pipelined:
+     * all of them are written before the responses are read back in order, so N games cost one round trip per node.
+     * The caller owns every array, so a steady-state poll doesn't allocate.
+     *
+     * @param requests the prepared requests
+     * @param into the response instances to fill in
+     * @param received set for each request to false if its response is empty, invalid JSON or about another event
+     * @param count the number of requests to send, from index 0
+     * @throws IOException on errors connecting or communicating with the server
+     */
+    public void sendPreparedAll(PreparedRequest[] requests, GamingResponse[] into, boolean[] received, int count)
+            throws IOException {
+        if (count == 1) {
+            received[0] = sendPrepared(requests[0], into[0]);
+            return;
+        }
+
+        synchronized (CONNECTION_LOCK_OBJECT) {
+            Connection connection = null;
+            try {
+                if (this.pipelines.length < count) {
+                    this.pipelines = new Connection[count];
+                }
+                Connection[] pipelines = this.pipelines;
+                for (int i = 0; i < count; i++) {
+                    connection = connectionFor(requests[i].getEventId());
+                    pipelines[i] = connection;
+                }
+
+                // A dozen games at most, pairing requests with their connection in place beats building a map
+                for (int first = 0; first < count; first++) {
+                    connection = pipelines[first];
+                    if (connection == null) {
+                        continue;
+                    }
+                    for (int i = first; i < count; i++) {
+                        if (pipelines[i] == connection) {
+                            connection.write(requests[i].getJson());
+                        }
+                    }
+                    for (int i = first; i < count; i++) {
+                        if (pipelines[i] == connection) {
+                            received[i] = readPrepared(connection, into[i]) && matches(requests[i], into[i]);
+                            pipelines[i] = null;
+                        }
+                    }
+                }
+
+                // Events that moved to another node are asked again there, one by one
+                for (int i = 0; i < count; i++) {
+                    if (received[i] && followRedirect(requests[i].getEventId(), into[i])) {
+                        connection = connectionFor(requests[i].getEventId());
+                        received[i] = exchangePrepared(connection, requests[i], into[i])
+                                && matches(requests[i], into[i]);
+                    }
+                }
+            } catch (IOException ex) {
+                Arrays.fill(this.pipelines, null);
+                drop(connection);
+                throw ex;
+            }
+        }
+    }
+
+    private static boolean matches(PreparedRequest request, GamingResponse response) {
+        // Older servers don't echo the eventId
+        if (response.getEventId() != 0 && response.getEventId() != request.getEventId()) {
+            Log.e(TAG, "Response for event " + response.getEventId() + " instead of " + request.getEventId());
+            return false;
+        }
+        return true;
+    }
+
+    private boolean exchangePrepared(Connection connection, PreparedRequest request, GamingResponse into)
+            throws IOException {
+        // Synchronization is handled by the caller
+        connection.write(request.getJson());
+        return readPrepared(connection, into);
+    }
+
+    private boolean readPrepared(Connection connection, GamingResponse into) throws IOException {
+        // Synchronization is handled by the caller. readUTF() would allocate a String per response, read the raw bytes instead
+        int length = connection.readFrame();
+        byte[] buffer = connection.getReceiveBuffer();
+
+        if (!GamingResponseReader.read(buffer, length, into)) {
+            Log.e(TAG, "Error reading GamingResponse");
+            return false;
+        }
+
+        // The message only matters when something changed, decode it the slow way then
+        if (!into.isActive() || into.getStatus() != Response.ResponseStatus.SUCCESS) {
+            Response full = parse(new String(buffer, 0, length, StandardCharsets.UTF_8), Response.class);
+            into.setMessage(full == null ? null : full.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Sets the session token returned by LOGIN. Every new connection opened afterwards first sends a
+     * RESUME_SESSION request with it, so a reconnect doesn't have to go through LOGIN and pairing again.
+     * The connection LOGIN went over is authenticated now, so the journal is replayed on it: call this on a
+     * network thread.
+     *
+     * @param sessionToken the session token, or null to forget the session
+     */
+    public void setSessionToken(String sessionToken) {
+        synchronized (CONNECTION_LOCK_OBJECT) {
+            this.sessionToken = sessionToken;
+
+            if (sessionToken != null && this.primary != null && this.primary.isOpen()) {
+                try {
+                    replayJournal(this.primary);
+                } catch (IOException ex) {
+                    // The entries stay journaled for the next authenticated connection
+                    Log.w(TAG, "Could not replay the journal", ex);
+                    drop(this.primary);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the current session token, for connections opened outside of this client.
+     *
+     * @return the session token, or null if not logged in
+     */
+    String getSessionToken() {
+        synchronized (CONNECTION_LOCK_OBJECT) {
+            return this.sessionToken;
+        }
+    }
+
+    /**
+     * Sets the listener told about the outcome of RESUME_SESSION requests.
+     *
+     * @param listener the listener, or null
+     */
+    public void setSessionListener(SessionListener listener) {
+        synchronized (CONNECTION_LOCK_OBJECT) {
+            this.sessionListener = listener;
+        }
+    }
+
     /**
      * Returns the only instance of {@code SocketClient}.
      *
@@ -104,31 +354,233 @@ public final class SocketClient {
         return INSTANCE;
     }
 
-    private void quietClose(Closeable closeable) {
+    private Connection primary() throws IOException {
+        // Synchronization is handled by the caller
+        this.endpoints.probeIfStale();
+        if (this.primary != null && this.primary.isOpen()) {
+            return this.primary;
+        }
+
+        // Connect to the best node, failing over to the next ones
+        IOException failure = null;
+        for (Endpoint candidate : this.endpoints.getOrdered()) {
+            try {
+                this.primary = Connection.open(candidate, CONNECT_TIMEOUT, SOCKET_TIMEOUT);
+                Log.i(TAG, "Client connected to server " + candidate);
+                // A node that accepts the socket but fails the handshake is as good as down
+                onConnected(this.primary);
+            } catch (IOException ex) {
+                // onConnected() already dropped the connection
+                this.primary = null;
+                this.endpoints.markFailed(candidate);
+                Log.w(TAG, "Could not connect to " + candidate, ex);
+                failure = ex;
+                continue;
+            }
+
+            this.endpoints.markHealthy(candidate);
+            return this.primary;
+        }
+        throw failure != null ? failure : new IOException("No server endpoint configured");
+    }
+
+    private Connection connectionFor(int eventId) throws IOException {
+        // Synchronization is handled by the caller
+        Endpoint owner = ownerOf(eventId);
+        if (owner == null) {
+            return primary();
+        }
+
+        // The owner may well be the node we are already talking to
+        if (this.primary != null && this.primary.isOpen() && owner.equals(this.primary.getEndpoint())) {
+            return this.primary;
+        }
+
+        Connection connection = this.routed.get(owner);
+        if (connection == null || !connection.isOpen()) {
+            connection = Connection.open(owner, CONNECT_TIMEOUT, SOCKET_TIMEOUT);
+            this.routed.put(owner, connection);
+            Log.i(TAG, "Client connected to event node " + owner);
+            onConnected(connection);
+        }
+        return connection;
+    }
+
+    /**
+     * @return the node owning {@code eventId}, or null for lobby traffic and single-node setups
+     */
+    private Endpoint ownerOf(int eventId) {
+        // Synchronization is handled by the caller
+        if (eventId == 0) {
+            return null;
+        }
+
+        Endpoint redirect = this.redirects.get(eventId);
+        if (redirect != null) {
+            return redirect;
+        }
+
+        ConsistentHashRing ring = this.endpoints.getRing();
+        return ring.size() < 2 ? null : ring.locate(eventId);
+    }
+
+    /**
+     * Records the owner named by a REDIRECT response.
+     *
+     * @return true if the request has to be sent again
+     */
+    private boolean followRedirect(int eventId, Response response) {
+        // Synchronization is handled by the caller
+        if (eventId == 0 || response == null || response.getStatus() != Response.ResponseStatus.REDIRECT) {
+            return false;
+        }
+
+        try {
+            Endpoint owner = Endpoint.parse(response.getMessage());
+            Log.i(TAG, "Event " + eventId + " is owned by " + owner);
+            return !owner.equals(this.redirects.put(eventId, owner));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            Log.e(TAG, "Invalid redirect", ex);
+            return false;
+        }
+    }
+
+    private void drop(Connection connection) {
+        // Synchronization is handled by the caller
+        if (connection == null) {
+            return;
+        }
+
+        connection.close();
+        this.endpoints.markFailed(connection.getEndpoint());
+        if (connection == this.primary) {
+            this.primary = null;
+        } else {
+            this.routed.remove(connection.getEndpoint());
+        }
+    }
+
+    private void onConnected(Connection connection) throws IOException {
+        // Synchronization is handled by the caller
         try {
-            if (closeable != null) {
-                closeable.close();
+            negotiateFraming(connection);
+            // Journaled requests are only accepted on an authenticated connection. Before LOGIN they wait
+            // for setSessionToken()
+            if (resumeSession(connection)) {
+                replayJournal(connection);
             }
         } catch (IOException ex) {
-            // nom-nom the exception
+            // The caller never got hold of the connection, so clean it up here
+            drop(connection);
+            throw ex;
         }
     }
 
-    private void connect() throws IOException {
+    /**
+     * An interface for the session listener, called on the main thread
+     */
+    public interface SessionListener {
+        /**
+         * The server rejected the session token, the user has to log in again.
+         */
+        void onSessionExpired();
+
+        /**
+         * A resumed session has a game in progress.
+         *
+         * @param event the game
+         */
+        void onGameResumed(Event event);
+    }
+
+    private <T extends Response> T parse(String response, Class<T> responseClass) {
+        try {
+            return this.gson.fromJson(response, responseClass);
+        } catch (JsonSyntaxException ex) {
+            Log.e(TAG, "Error deserializing JSON", ex);
+            return null;
+        }
+    }
+
+    private void negotiateFraming(Connection connection) throws IOException {
         // Synchronization is handled by the caller
-        if (this.socket == null || !this.socket.isConnected()) {
-            // Create socket and connect
-            this.socket = new Socket();
-            this.socket.connect(new InetSocketAddress(SERVER_HOST, SERVER_PORT));
+        Request request = new Request(Request.RequestType.NEGOTIATE_FRAMING, FrameCodec.EXTENDED_FRAMING);
+        Response response = parse(connection.exchange(this.gson.toJson(request)), Response.class);
 
-            Log.i(TAG, "Client connected to server");
+        // Servers that don't know extended framing answer with FAILURE, stay on the legacy framing with those
+        if (response != null && response.getStatus() == Response.ResponseStatus.SUCCESS) {
+            connection.getCodec().useExtendedFraming();
+            Log.i(TAG, "Extended framing with " + connection.getEndpoint());
+        }
+    }
+
+    /**
+     * @return true if the connection is authenticated
+     */
+    private boolean resumeSession(Connection connection) throws IOException {
+        // Synchronization is handled by the caller
+        if (this.sessionToken == null) {
+            return false;
+        }
+
+        Request request = new Request(Request.RequestType.RESUME_SESSION, this.sessionToken);
+        this.journal.stamp(request);
+        LoginResponse response = parse(connection.exchange(this.gson.toJson(request)), LoginResponse.class);
+
+        SessionListener listener = this.sessionListener;
+        if (response == null || response.getStatus() != Response.ResponseStatus.SUCCESS) {
+            // The server forgot about us, the user has to log in again. Journaled requests wait for that login
+            Log.w(TAG, "Session could not be resumed");
+            this.sessionToken = null;
+            if (listener != null) {
+                AppExecutors.getInstance().mainThread().execute(listener::onSessionExpired);
+            }
+            return false;
+        }
 
-            // Don't want to wait forever for input from the server
-            this.socket.setSoTimeout(SOCKET_TIMEOUT);
+        // The server may rotate the token on every resume
+        if (response.getSessionToken() != null) {
+            this.sessionToken = response.getSessionToken();
+        }
+        Log.i(TAG, "Session resumed on " + connection.getEndpoint());
+
+        // The game in progress comes with the same round trip, no need to go through pairing again
+        Event event = response.getEvent();
+        if (event != null && listener != null) {
+            AppExecutors.getInstance().mainThread().execute(() -> listener.onGameResumed(event));
+        }
+        return true;
+    }
+
+    private void replayJournal(Connection connection) throws IOException {
+        // Synchronization is handled by the caller. Replay strictly in the original order, before any new request
+        if (!this.journal.awaitLoaded(JOURNAL_LOAD_TIMEOUT)) {
+            Log.w(TAG, "Journal not loaded, replay deferred");
+            return;
+        }
+
+        // Events with a rejected request, their later requests would arrive out of order
+        List<Integer> blocked = new ArrayList<>();
+        for (Request pending : this.journal.snapshot()) {
+            // Only the requests this node is responsible for, the others wait for their own node
+            Endpoint owner = ownerOf(pending.getEventId());
+            boolean mine = owner == null ? connection == this.primary : owner.equals(connection.getEndpoint());
+            if (!mine || blocked.contains(pending.getEventId())) {
+                continue;
+            }
 
-            // Set up streams
-            this.inputStream = new DataInputStream(socket.getInputStream());
-            this.outputStream = new DataOutputStream(socket.getOutputStream());
+            Response response = parse(connection.exchange(this.gson.toJson(pending)), Response.class);
+            Log.i(TAG, "Replayed " + pending.getType() + " #" + pending.getSequence() + ": "
+                    + (response == null ? null : response.getStatus()));
+
+            if (response != null && (response.getStatus() == Response.ResponseStatus.SUCCESS
+                    || (response.getStatus() == Response.ResponseStatus.FAILURE
+                    && RequestJournal.DUPLICATE.equals(response.getMessage())))) {
+                this.journal.remove(pending.getSequence());
+            } else {
+                // Kept for the next authenticated connection
+                blocked.add(pending.getEventId());
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package clarkson.ee408.tictactoev4.client;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import clarkson.ee408.tictactoev4.model.User;
+import clarkson.ee408.tictactoev4.rating.RatingTable;
+
+/**
+ * A singleton, bounded LRU cache of {@link User} profiles keyed by username.
+ * Each entry keeps the pre-rendered label shown in the available users list, so the label is built once per
+ * profile change instead of once per bind. Entries older than the TTL are treated as missing, and the usernames
+ * whose profile is missing are asked for again with the next roster update (see {@link #getMissing()}).
+ */
+public final class UserCache {
+
+    private static final int CAPACITY = 512;
+    private static final long TTL_MILLIS = 5 * 60 * 1000; // 5 minutes
+    private static final int MAX_MISSING = 64;
+    private static final Object LOCK_OBJECT = new Object();
+
+    private static volatile UserCache INSTANCE;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Usernames received without a profile we could complete, oldest first
+    private final LinkedHashSet<String> missing = new LinkedHashSet<>();
+
+    private UserCache() {
+        // Access order turns the LinkedHashMap into an LRU list
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CAPACITY;
+            }
+        };
+    }
+
+    /**
+     * Returns the only instance of {@code UserCache}.
+     *
+     * @return the {@code UserCache} instance
+     */
+    public static UserCache getInstance() {
+        if (INSTANCE == null) {
+            synchronized (LOCK_OBJECT) {
+                if (INSTANCE == null) {
+                    INSTANCE = new UserCache();
+                }
+            }
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Merges users received from the server with the cache. Full profiles refresh their cache entry;
+     * users that only carry a username are completed from the cache when a fresh entry exists.
+     *
+     * @param users the users received from the server, may be null
+     * @return the resolved users, never null
+     */
+    public synchronized List<User> resolve(List<User> users) {
+        List<User> resolved = new ArrayList<>();
+        if (users == null) {
+            return resolved;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        for (User user : users) {
+            if (user == null || user.getUsername() == null) {
+                continue;
+            }
+
+            // The server's rating is authoritative, keep the players we rated in line with it
+            if (user.getRating() > 0) {
+                RatingTable.getInstance().updateRating(user.getUsername(), user.getRating());
+            }
+
+            if (user.getDisplayName() != null) {
+                resolved.add(put(user, now).user);
+                continue;
+            }
+
+            Entry entry = this.entries.get(user.getUsername());
+            if (entry != null && now - entry.refreshedAt <= TTL_MILLIS) {
+                resolved.add(entry.user);
+            } else {
+                // Unknown, evicted or expired profile, show the bare username until the server sends the full profile
+                addMissing(user.getUsername());
+                resolved.add(user);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Returns the usernames whose full profile is missing, to be sent with the next roster update.
+     * A username stays missing until its full profile is resolved or it is {@link #forget(Collection) forgotten}.
+     *
+     * @return the missing usernames, oldest first, at most {@value #MAX_MISSING}
+     */
+    public synchronized List<String> getMissing() {
+        return new ArrayList<>(this.missing);
+    }
+
+    /**
+     * Stops asking for the profile of users that left the roster.
+     *
+     * @param usernames the usernames of the users that left, may be null
+     */
+    public synchronized void forget(Collection<String> usernames) {
+        if (usernames != null) {
+            this.missing.removeAll(usernames);
+        }
+    }
+
+    /**
+     * Returns the pre-rendered list label of {@code user}.
+     *
+     * @param user a user, usually one returned by {@link #resolve(List)}
+     * @return the label, "displayName (username)" or just the username if the profile is unknown
+     */
+    public synchronized String getLabel(User user) {
+        Entry entry = this.entries.get(user.getUsername());
+        if (entry != null && entry.user == user) {
+            return entry.label;
+        }
+        return user.getDisplayName() == null ? user.getUsername() : formatLabel(user);
+    }
+
+    private void addMissing(String username) {
+        if (this.missing.add(username) && this.missing.size() > MAX_MISSING) {
+            // The oldest is asked for again if the server still sends it bare
+            Iterator<String> oldest = this.missing.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private Entry put(User user, long now) {
+        this.missing.remove(user.getUsername());
+        Entry entry = this.entries.get(user.getUsername());
+        if (entry != null && sameProfile(entry.user, user)) {
+            // Same profile, only extend its lifetime and keep the label
+            entry.user.setOnline(user.isOnline());
+            entry.refreshedAt = now;
+            return entry;
+        }
+
+        // Never keep the password around, the cache only serves display data
+        User profile = new User(user.getUsername(), null, user.getDisplayName(), user.isOnline());
+        profile.setRating(user.getRating());
+        entry = new Entry(profile, formatLabel(profile), now);
+        this.entries.put(user.getUsername(), entry);
+        return entry;
+    }
+
+    private static boolean sameProfile(User cached, User user) {
+        return cached.getDisplayName().equals(user.getDisplayName()) && cached.getRating() == user.getRating();
+    }
+
+    private static String formatLabel(User user) {
+        String label = user.getDisplayName() + " (" + user.getUsername() + ")";
+        return user.getRating() > 0 ? label + " " + user.getRating() : label;
+    }
+
+    /**
+     * A cached profile with its label and the time it was last refreshed
+     */
+    private static class Entry {
+        final User user;
+        final String label;
+        long refreshedAt;
+
+        Entry(User user, String label, long refreshedAt) {
+            this.user = user;
+            this.label = label;
+            this.refreshedAt = refreshedAt;
+        }
+    }
+}
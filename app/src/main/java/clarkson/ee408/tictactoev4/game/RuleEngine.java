@@ -0,0 +1,205 @@
+package clarkson.ee408.tictactoev4.game;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * The rules of TicTacToe on a board packed two bits per cell, see {@link TicTacToe#getBoard()}.
+ * Validation returns an explicit error code instead of ignoring an illegal move, and nothing here allocates,
+ * so the same checks can run on both clients and in a server's request loop.
+ * <p>
+ * Moves are numbered by ply: the first move of a game is ply 0. X always moves first, so whose turn it is
+ * follows from the board itself.
+ */
+public final class RuleEngine {
+
+    /**
+     * The move is legal
+     */
+    public static final int OK = 0;
+
+    /**
+     * The cell is not on the board
+     */
+    public static final int OUT_OF_RANGE = 1;
+
+    /**
+     * The cell already holds a mark
+     */
+    public static final int OCCUPIED = 2;
+
+    /**
+     * The player moving is not the one whose turn it is
+     */
+    public static final int WRONG_TURN = 3;
+
+    /**
+     * The game is already won or the board is full
+     */
+    public static final int GAME_OVER = 4;
+
+    /**
+     * The move was already applied, typically the server repeating the last move
+     */
+    public static final int STALE = 5;
+
+    /**
+     * One or more moves before this one were missed
+     */
+    public static final int OUT_OF_SEQUENCE = 6;
+
+    /**
+     * Pass as {@code ply} to skip the sequence check, for peers that don't send one
+     */
+    public static final int ANY_PLY = -1;
+
+    private static final int CELLS = TicTacToe.SIDE * TicTacToe.SIDE;
+
+    // Every row, column and diagonal as three cell indexes
+    private static final int[] LINES = {
+            0, 1, 2, 3, 4, 5, 6, 7, 8,
+            0, 3, 6, 1, 4, 7, 2, 5, 8,
+            0, 4, 8, 2, 4, 6};
+
+    private RuleEngine() {
+    }
+
+    /**
+     * Checks a move against a board.
+     *
+     * @param board the packed board before the move
+     * @param cell the cell to play, {@code row * SIDE + col}
+     * @param player the player number making the move
+     * @param ply the sequence number of the move, or {@link #ANY_PLY}
+     * @return {@link #OK} or one of the error codes
+     */
+    public static int validate(int board, int cell, int player, int ply) {
+        if (cell < 0 || cell >= CELLS) {
+            return OUT_OF_RANGE;
+        }
+
+        int played = plies(board);
+        if (ply != ANY_PLY) {
+            if (ply < played) {
+                return STALE;
+            }
+            if (ply > played) {
+                return OUT_OF_SEQUENCE;
+            }
+        }
+
+        if (played == CELLS || winner(board) != 0) {
+            return GAME_OVER;
+        }
+        if (player != turn(board)) {
+            return WRONG_TURN;
+        }
+        if (cellOf(board, cell) != 0) {
+            return OCCUPIED;
+        }
+        return OK;
+    }
+
+    /**
+     * Returns the board after a move, which must have been validated.
+     *
+     * @param board the packed board
+     * @param cell the cell to play
+     * @param player the player number making the move
+     * @return the new packed board
+     */
+    public static int apply(int board, int cell, int player) {
+        return board | (player << (2 * cell));
+    }
+
+    /**
+     * Returns the mark on a cell of a packed board.
+     *
+     * @param board the packed board
+     * @param cell the cell, {@code row * SIDE + col}
+     * @return the player number, 0 if empty
+     */
+    public static int cellOf(int board, int cell) {
+        return (board >>> (2 * cell)) & 0x3;
+    }
+
+    /**
+     * Returns the number of moves played on a packed board.
+     *
+     * @param board the packed board
+     * @return the number of marks
+     */
+    public static int plies(int board) {
+        // Each cell holds 0, 1 or 2, so a cell is non-empty iff either of its bits is set
+        int occupied = (board | (board >>> 1)) & 0x15555;
+        return Integer.bitCount(occupied);
+    }
+
+    /**
+     * Checks that a packed board received from a peer could occur in a game: every cell holds 0, 1 or 2 and
+     * X has played as many moves as O, or one more.
+     *
+     * @param board the packed board
+     * @return true if the board is well-formed
+     */
+    public static boolean isValid(int board) {
+        if ((board >>> (2 * CELLS)) != 0 || (board & (board >>> 1) & 0x15555) != 0) {
+            return false;
+        }
+        int x = Integer.bitCount(board & 0x15555);
+        int o = Integer.bitCount(board & 0x2AAAA);
+        return x == o || x == o + 1;
+    }
+
+    /**
+     * Returns the player number whose turn it is on a packed board.
+     *
+     * @param board the packed board
+     * @return 1 or 2
+     */
+    public static int turn(int board) {
+        return (plies(board) & 1) == 0 ? 1 : 2;
+    }
+
+    /**
+     * Returns the player number that completed a line on a packed board.
+     *
+     * @param board the packed board
+     * @return the winner, 0 if none
+     */
+    public static int winner(int board) {
+        for (int i = 0; i < LINES.length; i += 3) {
+            int mark = cellOf(board, LINES[i]);
+            if (mark != 0 && mark == cellOf(board, LINES[i + 1]) && mark == cellOf(board, LINES[i + 2])) {
+                return mark;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a readable name for an error code, for logs.
+     *
+     * @param code the code returned by {@link #validate}
+     * @return the name of the code
+     */
+    public static String describe(int code) {
+        switch (code) {
+            case OK:
+                return "OK";
+            case OUT_OF_RANGE:
+                return "OUT_OF_RANGE";
+            case OCCUPIED:
+                return "OCCUPIED";
+            case WRONG_TURN:
+                return "WRONG_TURN";
+            case GAME_OVER:
+                return "GAME_OVER";
+            case STALE:
+                return "STALE";
+            case OUT_OF_SEQUENCE:
+                return "OUT_OF_SEQUENCE";
+            default:
+                return "UNKNOWN(" + code + ")";
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package clarkson.ee408.tictactoev4.game;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * Zobrist hashing of a TicTacToe position: every (cell, mark) pair has a fixed random 64-bit key and the hash of
+ * a board is the XOR of the keys of its marks. Playing a move XORs one key in, so an engine keeps its hash up to
+ * date in constant time, and two peers confirm they hold the same board by comparing 8 bytes.
+ * <p>
+ * The keys come from SplitMix64 seeded with {@link #SEED}, so a server in any language derives the same table.
+ * The empty board hashes to 0.
+ */
+public final class Zobrist {
+
+    /**
+     * The seed of the key table, shared with the server
+     */
+    public static final long SEED = 0x7474_7434_5A6F_6272L;
+
+    private static final int CELLS = TicTacToe.SIDE * TicTacToe.SIDE;
+
+    // KEYS[2 * cell + mark - 1]
+    private static final long[] KEYS = new long[2 * CELLS];
+
+    static {
+        long state = SEED;
+        for (int i = 0; i < KEYS.length; i++) {
+            state += 0x9E37_79B9_7F4A_7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+            KEYS[i] = z ^ (z >>> 31);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a mark on a cell, XOR it into a hash to add or remove the mark.
+     *
+     * @param cell the cell, {@code row * SIDE + col}
+     * @param mark the player number, 1 or 2
+     * @return the key
+     */
+    public static long key(int cell, int mark) {
+        return KEYS[2 * cell + mark - 1];
+    }
+
+    /**
+     * Hashes a whole board from scratch, for checking an incrementally maintained hash.
+     *
+     * @param board the packed board, see {@link TicTacToe#getBoard()}
+     * @return the hash, 0 for the empty board
+     */
+    public static long hash(int board) {
+        long hash = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int mark = (board >>> (2 * cell)) & 0x3;
+            if (mark != 0) {
+                hash ^= KEYS[2 * cell + mark - 1];
+            }
+        }
+        return hash;
+    }
+}
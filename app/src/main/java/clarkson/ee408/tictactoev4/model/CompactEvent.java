@@ -0,0 +1,242 @@
+package clarkson.ee408.tictactoev4.model;
+
+/**
+ * Immutable, compact form of an {@link Event}. Players are stored as {@link PlayerIds} and status, turn and
+ * move are packed into a single int. Instances are shared through a small direct-mapped pool, so compacting
+ * the same event state again (e.g. on every poll) returns the instance already held and compares cheaply.
+ * The {@link Event} decoded by Gson is still allocated; the compact form only saves what is kept afterwards.
+ */
+public final class CompactEvent {
+
+    /**
+     * {@link #turn} value when nobody made a move yet
+     */
+    public static final int TURN_NONE = 0;
+
+    /**
+     * {@link #turn} value when the sender made the last move
+     */
+    public static final int TURN_SENDER = 1;
+
+    /**
+     * {@link #turn} value when the opponent made the last move
+     */
+    public static final int TURN_OPPONENT = 2;
+
+    private static final int MOVE_BITS = 8;
+    private static final int MOVE_MASK = (1 << MOVE_BITS) - 1;
+    private static final int STATUS_SHIFT = MOVE_BITS;
+    private static final int STATUS_MASK = 0x7;
+    private static final int TURN_SHIFT = STATUS_SHIFT + 3;
+    private static final int TURN_MASK = 0x3;
+
+    private static final int POOL_SIZE = 256; // power of two
+    private static final CompactEvent[] POOL = new CompactEvent[POOL_SIZE];
+    private static final Event.EventStatus[] STATUSES = Event.EventStatus.values();
+
+    /**
+     * Unique identifier autogenerated by a central database
+     */
+    private final int eventId;
+
+    /**
+     * Interned ID of the player that sends the invitation
+     */
+    private final int sender;
+
+    /**
+     * Interned ID of the player that receives the invitation
+     */
+    private final int opponent;
+
+    /**
+     * Move (bits 0-7, stored as move + 1), status ordinal (bits 8-10) and turn (bits 11-12)
+     */
+    private final int packed;
+
+    private CompactEvent(int eventId, int sender, int opponent, int packed) {
+        this.eventId = eventId;
+        this.sender = sender;
+        this.opponent = opponent;
+        this.packed = packed;
+    }
+
+    /**
+     * Returns the compact form of {@code event}.
+     *
+     * @param event the event to compact, may be null
+     * @return the compact event, or null if {@code event} is null
+     */
+    public static CompactEvent of(Event event) {
+        if (event == null) {
+            return null;
+        }
+        return of(event.getEventId(), event.getSender(), event.getOpponent(), event.getStatus(),
+                event.getTurn(), event.getMove());
+    }
+
+    /**
+     * Returns the compact form of the given event state, reusing a pooled instance when it is unchanged.
+     *
+     * @param eventId Unique identifier autogenerated by a central database
+     * @param sender The username of the player that sends the invitation
+     * @param opponent The username of the player that receives the invitation
+     * @param status The current status of the event
+     * @param turn The username of the player that made the last move
+     * @param move The last move of the game, -1 if there is none
+     * @return the compact event
+     */
+    public static CompactEvent of(int eventId, String sender, String opponent, Event.EventStatus status,
+                                  String turn, int move) {
+        int senderId = PlayerIds.intern(sender);
+        int opponentId = PlayerIds.intern(opponent);
+        int packed = pack(status, turnOf(turn, sender, opponent), move);
+
+        int slot = eventId & (POOL_SIZE - 1);
+        CompactEvent pooled = POOL[slot];
+        if (pooled != null && pooled.eventId == eventId && pooled.sender == senderId
+                && pooled.opponent == opponentId && pooled.packed == packed) {
+            return pooled;
+        }
+
+        // Instances are immutable, so a racy slot update only costs a missed reuse
+        CompactEvent event = new CompactEvent(eventId, senderId, opponentId, packed);
+        POOL[slot] = event;
+        return event;
+    }
+
+    private static int turnOf(String turn, String sender, String opponent) {
+        if (turn == null) {
+            return TURN_NONE;
+        }
+        if (turn.equals(sender)) {
+            return TURN_SENDER;
+        }
+        return turn.equals(opponent) ? TURN_OPPONENT : TURN_NONE;
+    }
+
+    private static int pack(Event.EventStatus status, int turn, int move) {
+        int statusBits = status == null ? STATUS_MASK : status.ordinal();
+        return ((move + 1) & MOVE_MASK) | (statusBits << STATUS_SHIFT) | (turn << TURN_SHIFT);
+    }
+
+    /**
+     * Expands this compact event back into a mutable {@link Event}.
+     *
+     * @return a new {@code Event} with the same state
+     */
+    public Event toEvent() {
+        return new Event(this.eventId, getSender(), getOpponent(), getStatus(), getTurn(), getMove());
+    }
+
+    /**
+     * Getter function for {@link #eventId} attribute
+     * @return eventId
+     */
+    public int getEventId() {
+        return this.eventId;
+    }
+
+    /**
+     * Getter function for {@link #sender} attribute
+     * @return the interned ID of the sender
+     */
+    public int getSenderId() {
+        return this.sender;
+    }
+
+    /**
+     * Getter function for {@link #opponent} attribute
+     * @return the interned ID of the opponent
+     */
+    public int getOpponentId() {
+        return this.opponent;
+    }
+
+    /**
+     * Returns the username of the player that sends the invitation
+     * @return sender
+     */
+    public String getSender() {
+        return PlayerIds.username(this.sender);
+    }
+
+    /**
+     * Returns the username of the player that receives the invitation
+     * @return opponent
+     */
+    public String getOpponent() {
+        return PlayerIds.username(this.opponent);
+    }
+
+    /**
+     * Returns the current status of the event
+     * @return status, or null if unknown
+     */
+    public Event.EventStatus getStatus() {
+        int ordinal = (this.packed >>> STATUS_SHIFT) & STATUS_MASK;
+        return ordinal < STATUSES.length ? STATUSES[ordinal] : null;
+    }
+
+    /**
+     * Returns who made the last move
+     * @return one of {@link #TURN_NONE}, {@link #TURN_SENDER} or {@link #TURN_OPPONENT}
+     */
+    public int getTurnFlag() {
+        return (this.packed >>> TURN_SHIFT) & TURN_MASK;
+    }
+
+    /**
+     * Returns the username of the player that made the last move
+     * @return turn, or null if nobody moved yet
+     */
+    public String getTurn() {
+        switch (getTurnFlag()) {
+            case TURN_SENDER:
+                return getSender();
+            case TURN_OPPONENT:
+                return getOpponent();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the last move of the game
+     * @return move, -1 if there is none
+     */
+    public int getMove() {
+        return (this.packed & MOVE_MASK) - 1;
+    }
+
+    /**
+     * Returns the packed status, turn and move
+     * @return packed state
+     */
+    public int getPacked() {
+        return this.packed;
+    }
+
+    /**
+     *
+     * @param obj instance of the other CompactEvent object
+     * @return true if both objects describe the same event in the same state
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CompactEvent)) {
+            return false;
+        }
+        CompactEvent other = (CompactEvent) obj;
+        return this.eventId == other.eventId && this.sender == other.sender
+                && this.opponent == other.opponent && this.packed == other.packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.eventId + this.packed;
+    }
+}
@@ -0,0 +1,87 @@
+package clarkson.ee408.tictactoev4.model;
+
+/**
+ * Model class for a move sent with a SEND_MOVE request
+ */
+public class Move {
+    /**
+     * The cell played, {@code row * SIDE + col}, from 0-8
+     */
+    private int cell;
+
+    /**
+     * The sequence number of the move in the game, the first move is ply 0
+     */
+    private int ply;
+
+    /**
+     * The Zobrist hash of the board after the move, so the server can tell the boards apart without comparing them
+     */
+    private long hash;
+
+    /**
+     * Default constructor
+     */
+    public Move() {
+    }
+
+    /**
+     *
+     * @param cell The cell played, from 0-8
+     * @param ply The sequence number of the move in the game
+     * @param hash The Zobrist hash of the board after the move
+     */
+    public Move(int cell, int ply, long hash) {
+        this.cell = cell;
+        this.ply = ply;
+        this.hash = hash;
+    }
+
+    /**
+     * Getter function for {@link #cell} attribute
+     * @return cell
+     */
+    public int getCell() {
+        return cell;
+    }
+
+    /**
+     * Setter function for {@link #cell} attribute
+     * @param cell The cell played, from 0-8
+     */
+    public void setCell(int cell) {
+        this.cell = cell;
+    }
+
+    /**
+     * Getter function for {@link #ply} attribute
+     * @return ply
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Setter function for {@link #ply} attribute
+     * @param ply The sequence number of the move in the game
+     */
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    /**
+     * Getter function for {@link #hash} attribute
+     * @return hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Setter function for {@link #hash} attribute
+     * @param hash The Zobrist hash of the board after the move
+     */
+    public void setHash(long hash) {
+        this.hash = hash;
+    }
+}
@@ -0,0 +1,92 @@
+package clarkson.ee408.tictactoev4.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide interning table that maps usernames to small integer IDs and back.
+ * ID {@link #NONE} stands for a null username.
+ */
+public final class PlayerIds {
+
+    /**
+     * The ID of a null username
+     */
+    public static final int NONE = 0;
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final List<String> USERNAMES = new ArrayList<>();
+
+    static {
+        USERNAMES.add(null);
+    }
+
+    private PlayerIds() {
+    }
+
+    /**
+     * Returns the ID of {@code username}, assigning a new one the first time a username is seen.
+     *
+     * @param username the username to intern, may be null
+     * @return the interned ID
+     */
+    public static int intern(String username) {
+        if (username == null) {
+            return NONE;
+        }
+
+        Integer id = IDS.get(username);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (USERNAMES) {
+            id = IDS.get(username);
+            if (id == null) {
+                id = USERNAMES.size();
+                USERNAMES.add(username);
+                IDS.put(username, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the ID of {@code username} without interning it.
+     *
+     * @param username the username to look up
+     * @return the ID, or {@link #NONE} if the username was never interned
+     */
+    public static int find(String username) {
+        if (username == null) {
+            return NONE;
+        }
+        Integer id = IDS.get(username);
+        return id == null ? NONE : id;
+    }
+
+    /**
+     * Returns the username of an interned ID. The returned {@code String} is the interned instance.
+     *
+     * @param id an ID returned by {@link #intern(String)}
+     * @return the username, or null for {@link #NONE}
+     */
+    public static String username(int id) {
+        synchronized (USERNAMES) {
+            return USERNAMES.get(id);
+        }
+    }
+
+    /**
+     * Returns the number of IDs handed out so far, including {@link #NONE}.
+     * Valid IDs are in {@code [0, size())}, so this can size arrays indexed by player ID.
+     *
+     * @return the number of IDs
+     */
+    public static int size() {
+        synchronized (USERNAMES) {
+            return USERNAMES.size();
+        }
+    }
+}
@@ -26,6 +26,10 @@ public class User {
      */
     private boolean online;
 
+    /**
+     * User's Elo rating as computed by the server, 0 if not sent
+     */
+    private int rating;
 
     /**
      * Default constructor
@@ -111,6 +115,22 @@ public class User {
         this.online = online;
     }
 
+    /**
+     * Getter function for {@link #rating} attribute
+     * @return rating
+     */
+    public int getRating() {
+        return rating;
+    }
+
+    /**
+     * Setter function for {@link #rating} attribute
+     * @param rating User's Elo rating, 0 if unknown
+     */
+    public void setRating(int rating) {
+        this.rating = rating;
+    }
+
 
     /**
      *
@@ -0,0 +1,220 @@
+package clarkson.ee408.tictactoev4.perf;
+
+import android.content.Context;
+import android.os.Trace;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import clarkson.ee408.tictactoev4.BuildConfig;
+import clarkson.ee408.tictactoev4.client.AppExecutors;
+
+/**
+ * A singleton that records frame durations and main-thread task timings.
+ * Frames are timed with a {@link Choreographer.FrameCallback}; tasks are wrapped in {@link #begin(String)} and
+ * {@link #end(String, long)}, which also emit systrace sections. Both are kept in fixed-size ring buffers and can be
+ * exported in the Chrome trace event format, which Perfetto and chrome://tracing open directly.
+ * Only debug builds record anything; in release builds every method returns right away, so no frame callback
+ * is posted and no trace file is written.
+ * Every method must be called from the main thread.
+ */
+public final class FrameTracker implements Choreographer.FrameCallback {
+
+    /**
+     * Frame budget at 60 Hz
+     */
+    public static final long FRAME_BUDGET_NANOS = 16_666_667L;
+
+    /**
+     * Frames longer than this are counted as frozen
+     */
+    public static final long FROZEN_FRAME_NANOS = 700_000_000L;
+
+    private static final int CAPACITY = 1024; // power of two
+    private static final String FILE_NAME = "frame_trace.json";
+    private static final String TAG = "FrameTracker";
+    private static final boolean ENABLED = BuildConfig.DEBUG;
+
+    private static FrameTracker INSTANCE;
+
+    // Frame ring buffer, start and duration of each frame
+    private final long[] frameStarts = new long[CAPACITY];
+    private final long[] frameDurations = new long[CAPACITY];
+    private int frameCount;
+
+    // Task ring buffer, section name, start and duration of each task
+    private final String[] taskNames = new String[CAPACITY];
+    private final long[] taskStarts = new long[CAPACITY];
+    private final long[] taskDurations = new long[CAPACITY];
+    private int taskCount;
+
+    private long totalFrames;
+    private long slowFrames;
+    private long frozenFrames;
+    private long slowTasks;
+    private long lastFrameNanos;
+    private boolean running;
+
+    private FrameTracker() {
+    }
+
+    /**
+     * Returns the only instance of {@code FrameTracker}. Main thread only.
+     *
+     * @return the {@code FrameTracker} instance
+     */
+    public static FrameTracker getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new FrameTracker();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Starts timing frames, usually from {@code onResume()}.
+     */
+    public void start() {
+        if (!ENABLED || running) {
+            return;
+        }
+        running = true;
+        lastFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Stops timing frames, usually from {@code onPause()}.
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        Log.i(TAG, "Frames: " + totalFrames + ", slow: " + slowFrames + ", frozen: " + frozenFrames
+                + ", slow tasks: " + slowTasks);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+
+        if (lastFrameNanos != 0) {
+            long duration = frameTimeNanos - lastFrameNanos;
+            int slot = frameCount++ & (CAPACITY - 1);
+            frameStarts[slot] = lastFrameNanos;
+            frameDurations[slot] = duration;
+
+            totalFrames++;
+            if (duration > FROZEN_FRAME_NANOS) {
+                frozenFrames++;
+            } else if (duration > FRAME_BUDGET_NANOS) {
+                slowFrames++;
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Marks the beginning of a main-thread task.
+     *
+     * @param section the task name, a constant so recording doesn't allocate
+     * @return the start time to pass to {@link #end(String, long)}
+     */
+    public long begin(String section) {
+        if (!ENABLED) {
+            return 0;
+        }
+        Trace.beginSection(section);
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a main-thread task started with {@link #begin(String)}.
+     *
+     * @param section the task name passed to {@code begin}
+     * @param startNanos the value returned by {@code begin}
+     */
+    public void end(String section, long startNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        long duration = System.nanoTime() - startNanos;
+        Trace.endSection();
+
+        int slot = taskCount++ & (CAPACITY - 1);
+        taskNames[slot] = section;
+        taskStarts[slot] = startNanos;
+        taskDurations[slot] = duration;
+
+        if (duration > FRAME_BUDGET_NANOS) {
+            slowTasks++;
+            Log.w(TAG, section + " took " + duration / 1_000_000 + " ms, over the frame budget");
+        }
+    }
+
+    /**
+     * Writes the recorded frames and tasks to {@code frame_trace.json} in the application's files directory.
+     * The buffers are copied on the main thread and written on the disk thread.
+     *
+     * @param context any context, only used to locate the application's files directory
+     */
+    public void export(Context context) {
+        if (!ENABLED) {
+            return;
+        }
+        File file = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+        String json = toTraceJson();
+        AppExecutors.getInstance().diskIO().execute(() -> {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                writer.write(json);
+                Log.i(TAG, "Trace written to " + file);
+            } catch (IOException ex) {
+                Log.e(TAG, "Error writing trace", ex);
+            }
+        });
+    }
+
+    private String toTraceJson() {
+        StringBuilder json = new StringBuilder("{\"traceEvents\":[");
+        boolean first = true;
+
+        int frames = Math.min(frameCount, CAPACITY);
+        for (int i = frameCount - frames; i < frameCount; i++) {
+            int slot = i & (CAPACITY - 1);
+            first = appendEvent(json, first, "frame", frameStarts[slot], frameDurations[slot],
+                    frameDurations[slot] > FRAME_BUDGET_NANOS ? "slow" : "frame");
+        }
+
+        int tasks = Math.min(taskCount, CAPACITY);
+        for (int i = taskCount - tasks; i < taskCount; i++) {
+            int slot = i & (CAPACITY - 1);
+            first = appendEvent(json, first, taskNames[slot], taskStarts[slot], taskDurations[slot], "task");
+        }
+
+        return json.append("],\"displayTimeUnit\":\"ms\"}").toString();
+    }
+
+    private static boolean appendEvent(StringBuilder json, boolean first, String name, long startNanos,
+                                       long durationNanos, String category) {
+        if (!first) {
+            json.append(',');
+        }
+        // Complete event, timestamps in microseconds
+        json.append("{\"name\":\"").append(name)
+                .append("\",\"cat\":\"").append(category)
+                .append("\",\"ph\":\"X\",\"pid\":0,\"tid\":0,\"ts\":").append(startNanos / 1000)
+                .append(",\"dur\":").append(durationNanos / 1000)
+                .append('}');
+        return false;
+    }
+}
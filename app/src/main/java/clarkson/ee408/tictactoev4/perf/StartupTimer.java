@@ -0,0 +1,56 @@
+package clarkson.ee408.tictactoev4.perf;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Records how long after process start each startup phase completes, from cold start to the first LOGIN response.
+ * Every phase is only recorded the first time it is reached. Filter logcat by the {@value #TAG} tag to read them.
+ */
+public final class StartupTimer {
+
+    /**
+     * {@code LoginActivity.onCreate()} was entered
+     */
+    public static final String ACTIVITY_CREATED = "activity_created";
+
+    /**
+     * The login layout is inflated
+     */
+    public static final String LAYOUT_INFLATED = "layout_inflated";
+
+    /**
+     * Gson adapters are built and the socket is connected
+     */
+    public static final String CONNECTION_WARM = "connection_warm";
+
+    /**
+     * The first LOGIN response arrived
+     */
+    public static final String LOGIN_RESPONSE = "login_response";
+
+    private static final String TAG = "StartupTimer";
+    private static final Set<String> RECORDED = new HashSet<>();
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Records that {@code phase} completed now. Can be called from any thread.
+     *
+     * @param phase one of the phase constants of this class
+     */
+    public static void mark(String phase) {
+        synchronized (RECORDED) {
+            if (!RECORDED.add(phase)) {
+                return;
+            }
+        }
+        long sinceStart = SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+        Log.i(TAG, phase + " at " + sinceStart + " ms");
+    }
+}
@@ -0,0 +1,68 @@
+package clarkson.ee408.tictactoev4.rating;
+
+/**
+ * Counts players per rating point in a Fenwick (binary indexed) tree, so moving a player and finding how many
+ * players are rated above a given rating are both O(log R), R being the number of rating points.
+ * Ratings are rounded to the nearest point and clamped to {@code [0, MAX_RATING]}. Not thread safe.
+ */
+final class RankIndex {
+
+    /**
+     * Highest rating told apart, higher ratings share the top bucket
+     */
+    static final int MAX_RATING = 4095;
+
+    // 1-based, tree[i] covers the buckets (i - lowbit(i), i]
+    private final int[] tree = new int[MAX_RATING + 2];
+    private int size;
+
+    /**
+     * Adds a player with {@code rating}.
+     */
+    void add(double rating) {
+        update(bucket(rating), 1);
+        this.size++;
+    }
+
+    /**
+     * Removes a player previously added with {@code rating}.
+     */
+    void remove(double rating) {
+        update(bucket(rating), -1);
+        this.size--;
+    }
+
+    /**
+     * Returns the 1-based rank of {@code rating}: one more than the number of players rated strictly higher.
+     * Players with the same rounded rating share a rank.
+     */
+    int rank(double rating) {
+        return this.size - countAtMost(bucket(rating)) + 1;
+    }
+
+    /**
+     * Returns the number of players in the index.
+     */
+    int size() {
+        return this.size;
+    }
+
+    private int countAtMost(int bucket) {
+        int count = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            count += this.tree[i];
+        }
+        return count;
+    }
+
+    private void update(int bucket, int delta) {
+        for (int i = bucket + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i] += delta;
+        }
+    }
+
+    private static int bucket(double rating) {
+        long rounded = Math.round(rating);
+        return (int) Math.max(0, Math.min(MAX_RATING, rounded));
+    }
+}
@@ -0,0 +1,237 @@
+package clarkson.ee408.tictactoev4.rating;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+import clarkson.ee408.tictactoev4.model.PlayerIds;
+
+/**
+ * A singleton holding the Elo rating of every player a game was played with, updated incrementally after each
+ * finished game. Ratings and game counts are primitive arrays indexed by the {@link PlayerIds} of the player, so an
+ * update is a few array writes. A {@link TreeSet} of player IDs ordered by rating is kept alongside, so the
+ * leaderboard is read from it rather than by sorting all players on every query, and a {@link RankIndex} answers
+ * the rank of any player in O(log R).
+ */
+public final class RatingTable {
+
+    /**
+     * Rating of a player without any rated game
+     */
+    public static final int INITIAL_RATING = 1200;
+
+    /**
+     * Players with fewer games move faster, see {@link #kFactor(int)}
+     */
+    public static final int PROVISIONAL_GAMES = 30;
+
+    private static final double PROVISIONAL_K = 40;
+    private static final double ESTABLISHED_K = 20;
+
+    private static final Object LOCK_OBJECT = new Object();
+
+    private static volatile RatingTable INSTANCE;
+
+    private double[] ratings;
+    private int[] games;
+    private boolean[] rated;
+
+    // Rated players, best first, ties broken by ID so every player has one position
+    private final TreeSet<Integer> index;
+    private final RankIndex ranks;
+
+    private RatingTable() {
+        this.ratings = new double[64];
+        this.games = new int[64];
+        this.rated = new boolean[64];
+        this.index = new TreeSet<>((a, b) -> {
+            int byRating = Double.compare(this.ratings[b], this.ratings[a]);
+            return byRating != 0 ? byRating : Integer.compare(a, b);
+        });
+        this.ranks = new RankIndex();
+    }
+
+    /**
+     * Returns the only instance of {@code RatingTable}.
+     *
+     * @return the {@code RatingTable} instance
+     */
+    public static RatingTable getInstance() {
+        if (INSTANCE == null) {
+            synchronized (LOCK_OBJECT) {
+                if (INSTANCE == null) {
+                    INSTANCE = new RatingTable();
+                }
+            }
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the rating of a player.
+     *
+     * @param username the player
+     * @return the rating, {@link #INITIAL_RATING} if unknown
+     */
+    public int getRating(String username) {
+        return getRating(PlayerIds.find(username));
+    }
+
+    /**
+     * Returns the rating of a player.
+     *
+     * @param id the {@link PlayerIds} of the player
+     * @return the rating, {@link #INITIAL_RATING} if unknown
+     */
+    public synchronized int getRating(int id) {
+        if (id == PlayerIds.NONE || id >= this.rated.length || !this.rated[id]) {
+            return INITIAL_RATING;
+        }
+        return (int) Math.round(this.ratings[id]);
+    }
+
+    /**
+     * Overwrites the rating of a player already rated here with the one reported by the server, which is
+     * authoritative. Other players are ignored, so the table only grows with the games played on this device.
+     *
+     * @param username the player
+     * @param rating the rating
+     */
+    public synchronized void updateRating(String username, int rating) {
+        int id = PlayerIds.find(username);
+        if (id == PlayerIds.NONE || id >= this.rated.length || !this.rated[id] || this.ratings[id] == rating) {
+            return;
+        }
+        move(id, rating);
+    }
+
+    /**
+     * Applies the result of one game to both players' ratings.
+     *
+     * @param x the player that played X
+     * @param o the player that played O
+     * @param winner the player number that won, 0 for a tie
+     */
+    public void recordResult(String x, String o, int winner) {
+        recordResult(PlayerIds.intern(x), PlayerIds.intern(o), winner);
+    }
+
+    /**
+     * Applies the result of one game to both players' ratings, in constant time plus the index update.
+     *
+     * @param x the {@link PlayerIds} of the player that played X
+     * @param o the {@link PlayerIds} of the player that played O
+     * @param winner the player number that won, 0 for a tie
+     */
+    public synchronized void recordResult(int x, int o, int winner) {
+        if (x == PlayerIds.NONE || o == PlayerIds.NONE || x == o) {
+            return;
+        }
+        ensureCapacity(Math.max(x, o));
+
+        double ratingX = this.rated[x] ? this.ratings[x] : INITIAL_RATING;
+        double ratingO = this.rated[o] ? this.ratings[o] : INITIAL_RATING;
+        double scoreX = winner == 1 ? 1 : winner == 2 ? 0 : 0.5;
+        double expectedX = expected(ratingX, ratingO);
+
+        // Both deltas come from the ratings before the game
+        double nextX = ratingX + kFactor(this.games[x]) * (scoreX - expectedX);
+        double nextO = ratingO + kFactor(this.games[o]) * ((1 - scoreX) - (1 - expectedX));
+        this.games[x]++;
+        this.games[o]++;
+        move(x, nextX);
+        move(o, nextO);
+    }
+
+    /**
+     * Returns the best rated players.
+     *
+     * @param k the number of players
+     * @return up to {@code k} {@link PlayerIds}, best first
+     */
+    public synchronized int[] top(int k) {
+        int[] top = new int[Math.min(k, this.index.size())];
+        Iterator<Integer> players = this.index.iterator();
+        for (int i = 0; i < top.length; i++) {
+            top[i] = players.next();
+        }
+        return top;
+    }
+
+    /**
+     * Returns the rank of a player among the rated players, players with the same rating share a rank.
+     *
+     * @param id the {@link PlayerIds} of the player
+     * @return the 1-based rank, 0 if the player is not rated
+     */
+    public synchronized int getRank(int id) {
+        if (id == PlayerIds.NONE || id >= this.rated.length || !this.rated[id]) {
+            return 0;
+        }
+        return this.ranks.rank(this.ratings[id]);
+    }
+
+    /**
+     * Returns the rank of a player among the rated players.
+     *
+     * @param username the player
+     * @return the 1-based rank, 0 if the player is not rated
+     */
+    public int getRank(String username) {
+        return getRank(PlayerIds.find(username));
+    }
+
+    /**
+     * Returns the number of rated players.
+     *
+     * @return the number of players
+     */
+    public synchronized int size() {
+        return this.ranks.size();
+    }
+
+    /**
+     * Returns the expected score of a player against another, between 0 and 1.
+     *
+     * @param rating the player's rating
+     * @param opponent the opponent's rating
+     * @return the expected score
+     */
+    public static double expected(double rating, double opponent) {
+        return 1 / (1 + Math.pow(10, (opponent - rating) / 400));
+    }
+
+    /**
+     * Returns how far one game can move a rating.
+     *
+     * @param games the number of rated games already played
+     * @return the K-factor
+     */
+    public static double kFactor(int games) {
+        return games < PROVISIONAL_GAMES ? PROVISIONAL_K : ESTABLISHED_K;
+    }
+
+    private void move(int id, double rating) {
+        // Synchronization is handled by the caller. The comparator reads the array, so leave the index first
+        if (this.rated[id]) {
+            this.index.remove(id);
+            this.ranks.remove(this.ratings[id]);
+        }
+        this.ratings[id] = rating;
+        this.rated[id] = true;
+        this.index.add(id);
+        this.ranks.add(rating);
+    }
+
+    private void ensureCapacity(int id) {
+        // Synchronization is handled by the caller
+        if (id < this.ratings.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, this.ratings.length * 2);
+        this.ratings = Arrays.copyOf(this.ratings, capacity);
+        this.games = Arrays.copyOf(this.games, capacity);
+        this.rated = Arrays.copyOf(this.rated, capacity);
+    }
+}
@@ -19,6 +19,33 @@ public class GamingResponse extends Response {
 	 */
 	boolean active;
 
+	/**
+	 * The {@link Event#getEventId()} this response is about, so responses of several games sharing a connection can be told apart
+	 */
+	int eventId;
+
+	/**
+	 * The sequence number of {@link #move} in the game (the first move is ply 0), -1 if the server doesn't number moves
+	 */
+	int ply = -1;
+
+	/**
+	 * The Zobrist hash of the server's board after {@link #ply}, 0 if the server doesn't hash boards
+	 */
+	long hash;
+
+	/**
+	 * The number of times the board was rewritten by an agreed {@link Request.RequestType#REMATCH} or
+	 * {@link Request.RequestType#UNDO_MOVE}, 0 for the first game
+	 */
+	int revision;
+
+	/**
+	 * The {@link Request.RequestType#REMATCH} or {@link Request.RequestType#UNDO_MOVE} the opponent proposed and the
+	 * user didn't answer yet, null if none
+	 */
+	Request.RequestType proposal;
+
 	/**
 	 * Default constructor, calls parent's class constructor
 	 */
@@ -70,4 +97,84 @@ public class GamingResponse extends Response {
 	public void setActive(boolean active) {
 		this.active = active;
 	}
+
+	/**
+	 * Getter function for {@link #eventId} attribute
+	 * @return eventId
+	 */
+	public int getEventId() {
+		return eventId;
+	}
+
+	/**
+	 * Setter function for {@link #eventId} attribute
+	 * @param eventId The {@link Event#getEventId()} this response is about
+	 */
+	public void setEventId(int eventId) {
+		this.eventId = eventId;
+	}
+
+	/**
+	 * Getter function for {@link #ply} attribute
+	 * @return ply
+	 */
+	public int getPly() {
+		return ply;
+	}
+
+	/**
+	 * Setter function for {@link #ply} attribute
+	 * @param ply The sequence number of the move in the game, -1 if unknown
+	 */
+	public void setPly(int ply) {
+		this.ply = ply;
+	}
+
+	/**
+	 * Getter function for {@link #hash} attribute
+	 * @return hash
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Setter function for {@link #hash} attribute
+	 * @param hash The Zobrist hash of the server's board, 0 if unknown
+	 */
+	public void setHash(long hash) {
+		this.hash = hash;
+	}
+
+	/**
+	 * Getter function for {@link #revision} attribute
+	 * @return revision
+	 */
+	public int getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Setter function for {@link #revision} attribute
+	 * @param revision The number of times the board was rewritten by a rematch or an undo
+	 */
+	public void setRevision(int revision) {
+		this.revision = revision;
+	}
+
+	/**
+	 * Getter function for {@link #proposal} attribute
+	 * @return proposal
+	 */
+	public Request.RequestType getProposal() {
+		return proposal;
+	}
+
+	/**
+	 * Setter function for {@link #proposal} attribute
+	 * @param proposal The rematch or undo the opponent proposed, null if none
+	 */
+	public void setProposal(Request.RequestType proposal) {
+		this.proposal = proposal;
+	}
 }
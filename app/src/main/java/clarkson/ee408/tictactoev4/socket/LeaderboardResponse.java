@@ -0,0 +1,135 @@
+package clarkson.ee408.tictactoev4.socket;
+
+import java.util.List;
+
+import clarkson.ee408.tictactoev4.model.User;
+
+/**
+ * Models the server's response to a LEADERBOARD request: the best rated players and the caller's rank.
+ * If the leaderboard didn't change since the version sent in the request, only {@link #unchanged} and
+ * {@link #version} are set and the client keeps showing its cached copy.
+ */
+public class LeaderboardResponse extends Response {
+
+    /**
+     * Version of the ratings the leaderboard was computed from.
+     */
+    private long version;
+
+    /**
+     * True if the requested version is still current, the other fields are then left out.
+     */
+    private boolean unchanged;
+
+    /**
+     * The best rated players, best first, with their {@link User#getRating()}.
+     */
+    private List<User> top;
+
+    /**
+     * The caller's 1-based rank, 0 if not rated yet.
+     */
+    private int rank;
+
+    /**
+     * The number of rated players.
+     */
+    private int players;
+
+    /**
+     * Default constructor that creates a {@code LeaderboardResponse} with default values.
+     */
+    public LeaderboardResponse() {
+        super();
+    }
+
+    /**
+     * Returns the version of the ratings the leaderboard was computed from.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns whether the requested version is still current.
+     *
+     * @return true if the cached leaderboard can be kept
+     */
+    public boolean isUnchanged() {
+        return this.unchanged;
+    }
+
+    /**
+     * Returns the best rated players.
+     *
+     * @return the players, best first
+     */
+    public List<User> getTop() {
+        return this.top;
+    }
+
+    /**
+     * Returns the caller's rank.
+     *
+     * @return the 1-based rank, 0 if not rated yet
+     */
+    public int getRank() {
+        return this.rank;
+    }
+
+    /**
+     * Returns the number of rated players.
+     *
+     * @return the number of players
+     */
+    public int getPlayers() {
+        return this.players;
+    }
+
+    /**
+     * Sets the version of the ratings the leaderboard was computed from.
+     *
+     * @param version the version to set
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Sets whether the requested version is still current.
+     *
+     * @param unchanged the flag to set
+     */
+    public void setUnchanged(boolean unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * Sets the best rated players.
+     *
+     * @param top the players to set, best first
+     */
+    public void setTop(List<User> top) {
+        this.top = top;
+    }
+
+    /**
+     * Sets the caller's rank.
+     *
+     * @param rank the rank to set
+     */
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * Sets the number of rated players.
+     *
+     * @param players the number to set
+     */
+    public void setPlayers(int players) {
+        this.players = players;
+    }
+}
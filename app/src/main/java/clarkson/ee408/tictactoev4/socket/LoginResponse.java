@@ -0,0 +1,76 @@
+package clarkson.ee408.tictactoev4.socket;
+
+import clarkson.ee408.tictactoev4.model.*;
+
+/**
+ * Models the server's response to a LOGIN or RESUME_SESSION request in the TicTacToe game.
+ */
+public class LoginResponse extends Response {
+
+    /**
+     * Opaque token identifying the server-side session, replayed with {@link Request.RequestType#RESUME_SESSION} on reconnect.
+     */
+    private String sessionToken;
+
+    /**
+     * The user's in-progress game, if any. Lets a resumed session continue the game without pairing again.
+     */
+    private Event event;
+
+    /**
+     * Default constructor, calls parent's class constructor
+     */
+    public LoginResponse() {
+        super();
+    }
+
+    /**
+     * Creates a new instance of {@code LoginResponse}.
+     *
+     * @param status Status to indicate success or failure of the request
+     * @param message Explanation of the success or failure of the request
+     * @param sessionToken token identifying the server-side session
+     * @param event the user's in-progress game, or null
+     */
+    public LoginResponse(ResponseStatus status, String message, String sessionToken, Event event) {
+        super(status, message);
+        this.sessionToken = sessionToken;
+        this.event = event;
+    }
+
+    /**
+     * Returns the token identifying the server-side session.
+     *
+     * @return the session token
+     */
+    public String getSessionToken() {
+        return this.sessionToken;
+    }
+
+    /**
+     * Sets the token identifying the server-side session.
+     *
+     * @param sessionToken the session token to set
+     */
+    public void setSessionToken(String sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+
+    /**
+     * Returns the user's in-progress game.
+     *
+     * @return the in-progress game, or null if there is none
+     */
+    public Event getEvent() {
+        return this.event;
+    }
+
+    /**
+     * Sets the user's in-progress game.
+     *
+     * @param event the in-progress game to set
+     */
+    public void setEvent(Event event) {
+        this.event = event;
+    }
+}
@@ -0,0 +1,180 @@
+package clarkson.ee408.tictactoev4.socket;
+
+/**
+ * Models a move of a watched game, pushed to every spectator after a SPECTATE request.
+ * <p>
+ * It carries nothing specific to a viewer, so the server serializes each move once and writes the same frame
+ * to all spectators of the event. The first frame after subscribing is a catch-up: {@link #history} holds every
+ * move played so far. Later frames only carry the new {@link #move}, until a rematch or an undo rewrites the board:
+ * the server then sends a new catch-up frame.
+ */
+public class MoveBroadcast extends Response {
+
+    /**
+     * The event being watched.
+     */
+    private int eventId;
+
+    /**
+     * The username of the player that plays X.
+     */
+    private String sender;
+
+    /**
+     * The username of the player that plays O.
+     */
+    private String opponent;
+
+    /**
+     * Number of moves played before this one, lets a spectator detect a gap.
+     */
+    private int ply;
+
+    /**
+     * The move, 0-8, or -1 in the catch-up frame.
+     */
+    private int move;
+
+    /**
+     * Every move so far in order, only in the catch-up frame.
+     */
+    private int[] history;
+
+    /**
+     * If the game is still in play.
+     */
+    private boolean active;
+
+    /**
+     * Default constructor that creates a {@code MoveBroadcast} with default values.
+     */
+    public MoveBroadcast() {
+        super();
+    }
+
+    /**
+     * Returns the event being watched.
+     *
+     * @return the eventId
+     */
+    public int getEventId() {
+        return this.eventId;
+    }
+
+    /**
+     * Returns the username of the player that plays X.
+     *
+     * @return the sender
+     */
+    public String getSender() {
+        return this.sender;
+    }
+
+    /**
+     * Returns the username of the player that plays O.
+     *
+     * @return the opponent
+     */
+    public String getOpponent() {
+        return this.opponent;
+    }
+
+    /**
+     * Returns the number of moves played before this one.
+     *
+     * @return the ply
+     */
+    public int getPly() {
+        return this.ply;
+    }
+
+    /**
+     * Returns the move.
+     *
+     * @return the move, 0-8, or -1 in the catch-up frame
+     */
+    public int getMove() {
+        return this.move;
+    }
+
+    /**
+     * Returns every move so far.
+     *
+     * @return the moves in order, null unless this is the catch-up frame
+     */
+    public int[] getHistory() {
+        return this.history;
+    }
+
+    /**
+     * Returns whether the game is still in play.
+     *
+     * @return true while the game is in play
+     */
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * Sets the event being watched.
+     *
+     * @param eventId the eventId to set
+     */
+    public void setEventId(int eventId) {
+        this.eventId = eventId;
+    }
+
+    /**
+     * Sets the username of the player that plays X.
+     *
+     * @param sender the sender to set
+     */
+    public void setSender(String sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Sets the username of the player that plays O.
+     *
+     * @param opponent the opponent to set
+     */
+    public void setOpponent(String opponent) {
+        this.opponent = opponent;
+    }
+
+    /**
+     * Sets the number of moves played before this one.
+     *
+     * @param ply the ply to set
+     */
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    /**
+     * Sets the move.
+     *
+     * @param move the move to set
+     */
+    public void setMove(int move) {
+        this.move = move;
+    }
+
+    /**
+     * Sets every move so far.
+     *
+     * @param history the moves to set, null unless this is the catch-up frame
+     */
+    public void setHistory(int[] history) {
+        this.history = history;
+    }
+
+    /**
+     * Sets whether the game is still in play.
+     *
+     * @param active the state to set
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
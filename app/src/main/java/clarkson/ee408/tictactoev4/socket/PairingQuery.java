@@ -0,0 +1,158 @@
+package clarkson.ee408.tictactoev4.socket;
+
+import java.util.List;
+
+/**
+ * Models the payload of an UPDATE_PAIRING request: which page of available users to return and how to filter them.
+ */
+public class PairingQuery {
+
+    /**
+     * Opaque position returned as {@link PairingResponse#getNextCursor()}, null for the first page.
+     */
+    private String cursor;
+
+    /**
+     * Maximum number of users to return.
+     */
+    private int pageSize;
+
+    /**
+     * Only return users whose username or display name starts with this text (case-insensitive), null for everyone.
+     */
+    private String prefix;
+
+    /**
+     * Roster version the client already holds ({@link PairingResponse#getVersion()}), 0 if none.
+     * Only used by UPDATE_ROSTER for the first page.
+     */
+    private long version;
+
+    /**
+     * Usernames whose full profile the client is missing, the server sends these users in full.
+     * Only used by UPDATE_ROSTER for the first page, null if none.
+     */
+    private List<String> profiles;
+
+    /**
+     * Default constructor that creates a {@code PairingQuery} with default values.
+     */
+    public PairingQuery() {
+    }
+
+    /**
+     * Creates a new instance of {@code PairingQuery}.
+     *
+     * @param cursor the position to continue from, null for the first page
+     * @param pageSize the maximum number of users to return
+     * @param prefix the username or display name prefix to filter on, null for everyone
+     */
+    public PairingQuery(String cursor, int pageSize, String prefix) {
+        this.cursor = cursor;
+        this.pageSize = pageSize;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Creates a new instance of {@code PairingQuery} for an UPDATE_ROSTER request.
+     *
+     * @param cursor the position to continue from, null for the first page
+     * @param pageSize the maximum number of users to return
+     * @param prefix the username or display name prefix to filter on, null for everyone
+     * @param version the roster version the client already holds, 0 if none
+     */
+    public PairingQuery(String cursor, int pageSize, String prefix, long version) {
+        this(cursor, pageSize, prefix);
+        this.version = version;
+    }
+
+    /**
+     * Returns the position to continue from.
+     *
+     * @return the cursor, null for the first page
+     */
+    public String getCursor() {
+        return this.cursor;
+    }
+
+    /**
+     * Returns the maximum number of users to return.
+     *
+     * @return the page size
+     */
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * Returns the username or display name prefix to filter on.
+     *
+     * @return the prefix, null for everyone
+     */
+    public String getPrefix() {
+        return this.prefix;
+    }
+
+    /**
+     * Returns the roster version the client already holds.
+     *
+     * @return the version, 0 if none
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the usernames whose full profile the client is missing.
+     *
+     * @return the usernames, null if none
+     */
+    public List<String> getProfiles() {
+        return this.profiles;
+    }
+
+    /**
+     * Sets the position to continue from.
+     *
+     * @param cursor the cursor to set
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Sets the maximum number of users to return.
+     *
+     * @param pageSize the page size to set
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets the username or display name prefix to filter on.
+     *
+     * @param prefix the prefix to set
+     */
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Sets the roster version the client already holds.
+     *
+     * @param version the version to set, 0 if none
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Sets the usernames whose full profile the client is missing.
+     *
+     * @param profiles the usernames to set, null if none
+     */
+    public void setProfiles(List<String> profiles) {
+        this.profiles = profiles;
+    }
+}
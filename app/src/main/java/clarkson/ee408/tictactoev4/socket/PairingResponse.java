@@ -6,7 +6,8 @@ import java.util.List;
 import clarkson.ee408.tictactoev4.model.*;
 
 /**
- * Models the server's response to an UPDATE_PAIRING request in the TicTacToe game.
+ * Models the server's response to an UPDATE_PAIRING or UPDATE_ROSTER request in the TicTacToe game,
+ * and the messages pushed after SUBSCRIBE_INVITATIONS.
  */
 public class PairingResponse extends Response {
 
@@ -25,6 +26,27 @@ public class PairingResponse extends Response {
      */
     private Event invitationResponse;
 
+    /**
+     * Represents a game started by the matchmaking queue after a QUICK_MATCH request, its sender plays first.
+     */
+    private Event match;
+
+    /**
+     * Position of the next page of available users, null if this was the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Version of the roster this response brings the client to, see {@link PairingQuery#getVersion()}.
+     */
+    private long version;
+
+    /**
+     * Usernames that left the roster since the requested version. Null if the response is a full first page
+     * rather than a delta, in which case {@link #availableUsers} replaces the list.
+     */
+    private List<String> removedUsers;
+
     /**
      * Default constructor that creates a {@code PairingResponse} with default values.
      */
@@ -73,6 +95,42 @@ public class PairingResponse extends Response {
         return this.invitationResponse;
     }
 
+    /**
+     * Returns the game started by the matchmaking queue.
+     *
+     * @return the matched game, already PLAYING, or null
+     */
+    public Event getMatch() {
+        return this.match;
+    }
+
+    /**
+     * Returns the position of the next page of available users.
+     *
+     * @return the cursor to pass in the next {@link PairingQuery}, null if there are no more users
+     */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * Returns the version of the roster this response brings the client to.
+     *
+     * @return the roster version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the usernames that left the roster since the requested version.
+     *
+     * @return the removed usernames, null if the response is a full first page
+     */
+    public List<String> getRemovedUsers() {
+        return this.removedUsers;
+    }
+
     /**
      * Sets the list of available users that can receive game invitations.
      *
@@ -99,4 +157,40 @@ public class PairingResponse extends Response {
     public void setInvitationResponse(Event invitationResponse) {
         this.invitationResponse = invitationResponse;
     }
+
+    /**
+     * Sets the game started by the matchmaking queue.
+     *
+     * @param match the matched game to set
+     */
+    public void setMatch(Event match) {
+        this.match = match;
+    }
+
+    /**
+     * Sets the position of the next page of available users.
+     *
+     * @param nextCursor the cursor to set, null if there are no more users
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Sets the version of the roster this response brings the client to.
+     *
+     * @param version the roster version to set
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Sets the usernames that left the roster since the requested version.
+     *
+     * @param removedUsers the removed usernames to set, null for a full first page
+     */
+    public void setRemovedUsers(List<String> removedUsers) {
+        this.removedUsers = removedUsers;
+    }
 }
\ No newline at end of file
@@ -24,7 +24,8 @@ public class Request {
 		REGISTER,
 
 		/**
-		 * Request to get pairing update, {@link #data} is null
+		 * Request to get pairing update, {@link #data} is serialized object of {@link clarkson.ee408.tictactoev4.socket.PairingQuery},
+		 * or null for the whole list
 		 */
 		UPDATE_PAIRING,
 
@@ -54,7 +55,9 @@ public class Request {
 		REQUEST_MOVE,
 
 		/**
-		 * Request to send a game move, {@link #data} is Integer from 0-8 (TicTacToe cell)
+		 * Request to send a game move, {@link #data} is serialized object of {@link Move}: the TicTacToe cell from 0-8,
+		 * the ply of the move, so the server can reject illegal, replayed or out-of-order moves, and the hash of the
+		 * board after the move. The {@link GamingResponse} carries the hash of the server's board
 		 */
 		SEND_MOVE,
 
@@ -64,9 +67,87 @@ public class Request {
 		ABORT_GAME,
 
 		/**
-		 * Request to complete current game after receiving last game move, {@link #data} is null
+		 * Request to complete current game after receiving last game move, {@link #data} is null. The server rates the
+		 * game from its own record of the moves, never from what a client claims
 		 */
 		COMPLETE_GAME,
+
+		/**
+		 * Request to reattach a new connection to an existing session, {@link #data} is the session token from {@link LoginResponse}
+		 */
+		RESUME_SESSION,
+
+		/**
+		 * Request used to measure the round-trip time to a server, {@link #data} is null
+		 */
+		PING,
+
+		/**
+		 * Request to switch the connection to extended framing (4-byte length, optional per-frame deflate) after the
+		 * response, {@link #data} is the offered framing version. Sent in legacy framing
+		 */
+		NEGOTIATE_FRAMING,
+
+		/**
+		 * Request to receive invitations and invitation responses as they happen instead of polling for them,
+		 * {@link #data} is the session token. The server answers, then keeps pushing {@link PairingResponse} frames
+		 * on the same connection. Right after answering, the server pushes again whatever is still pending for the
+		 * user (an open invitation, an unacknowledged invitation response, a match not yet started), so nothing
+		 * pushed while the client was resubscribing is lost. Sent on a dedicated connection
+		 */
+		SUBSCRIBE_INVITATIONS,
+
+		/**
+		 * Request to get the changes to the available users, {@link #data} is serialized object of
+		 * {@link clarkson.ee408.tictactoev4.socket.PairingQuery} carrying the roster version the client holds and the
+		 * users whose profile it is missing. Users the client has a profile for may be sent with their username only
+		 */
+		UPDATE_ROSTER,
+
+		/**
+		 * Request to join the matchmaking queue, {@link #data} is the player's rating so the queue can pair players of
+		 * similar strength. When an opponent is found the server
+		 * pushes the new {@link PairingResponse#getMatch()} on the SUBSCRIBE_INVITATIONS channel
+		 */
+		QUICK_MATCH,
+
+		/**
+		 * Request to leave the matchmaking queue, {@link #data} is null
+		 */
+		CANCEL_MATCH,
+
+		/**
+		 * Request to watch a game, {@link #data} is the session token and {@link #eventId} the game to watch.
+		 * The server answers, then pushes a {@link MoveBroadcast} for every move on the same connection.
+		 * Sent on a dedicated connection
+		 */
+		SPECTATE,
+
+		/**
+		 * Request to get the top rated players and the caller's rank, {@link #data} is the
+		 * {@link LeaderboardResponse#getVersion()} the client has cached, "0" if none
+		 */
+		LEADERBOARD,
+
+		/**
+		 * Request to get the whole board of the game {@link #eventId}, {@link #data} is null.
+		 * The server answers with a {@link StateResponse}, sent when a client lost track of the game
+		 */
+		GET_STATE,
+
+		/**
+		 * Request to play another game on the same event once the current one is over, {@link #data} is null.
+		 * When both players sent it, the server rates the finished game from its own moves (as for
+		 * {@link #COMPLETE_GAME}), clears the board and bumps {@link GamingResponse#getRevision()}
+		 */
+		REMATCH,
+
+		/**
+		 * Request to take back the last move, {@link #data} is the ply of that move. The player who made it proposes,
+		 * the opponent consents by sending the same request; the server then removes the move and bumps
+		 * {@link GamingResponse#getRevision()}. The next move withdraws the proposal
+		 */
+		UNDO_MOVE,
 	}
 
 	/**
@@ -79,6 +160,16 @@ public class Request {
 	 */
 	private String data;
 
+	/**
+	 * Client-assigned sequence number, lets the server drop duplicates of a replayed request
+	 */
+	private long sequence;
+
+	/**
+	 * The {@link Event#getEventId()} this request belongs to, 0 if none. Used to route game traffic to the node owning the event
+	 */
+	private int eventId;
+
 	/**
 	 * Default constructor
 	 */
@@ -127,4 +218,36 @@ public class Request {
 		this.data = data;
 	}
 
+	/**
+	 * Getter function for {@link #sequence} attribute
+	 * @return sequence
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Setter function for {@link #sequence} attribute
+	 * @param sequence Client-assigned sequence number, lets the server drop duplicates of a replayed request
+	 */
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+
+	/**
+	 * Getter function for {@link #eventId} attribute
+	 * @return eventId
+	 */
+	public int getEventId() {
+		return eventId;
+	}
+
+	/**
+	 * Setter function for {@link #eventId} attribute
+	 * @param eventId The {@link Event#getEventId()} this request belongs to, 0 if none
+	 */
+	public void setEventId(int eventId) {
+		this.eventId = eventId;
+	}
+
 }
@@ -20,7 +20,13 @@ public class Response {
 		/**
 		 * Status when something went wrong in the request, either errors or invalid input
 		 */
-		FAILURE
+		FAILURE,
+
+		/**
+		 * Status when the request belongs to an {@code Event} owned by another server node,
+		 * {@link #message} is that node as {@code host:port}
+		 */
+		REDIRECT
 	}
 
 	/**
@@ -0,0 +1,154 @@
+package clarkson.ee408.tictactoev4.socket;
+
+/**
+ * Models the server's response to a GET_STATE request: the whole board of a game, small enough to resend
+ * whenever a client lost track of it. The board is packed two bits per cell, row-major, cell (0, 0) in the
+ * lowest bits, as in {@code TicTacToe#getBoard()}.
+ */
+public class StateResponse extends Response {
+
+    /**
+     * The game the state belongs to.
+     */
+    private int eventId;
+
+    /**
+     * The packed board.
+     */
+    private int board;
+
+    /**
+     * The player number that makes the next move.
+     */
+    private int turn;
+
+    /**
+     * The number of moves played, which is also the ply of the next move.
+     */
+    private int ply;
+
+    /**
+     * The Zobrist hash of the board, 0 if the server doesn't hash boards.
+     */
+    private long hash;
+
+    /**
+     * If the game is still in play.
+     */
+    private boolean active;
+
+    /**
+     * Default constructor that creates a {@code StateResponse} with default values.
+     */
+    public StateResponse() {
+        super();
+    }
+
+    /**
+     * Returns the game the state belongs to.
+     *
+     * @return the eventId
+     */
+    public int getEventId() {
+        return this.eventId;
+    }
+
+    /**
+     * Returns the packed board.
+     *
+     * @return the board, two bits per cell
+     */
+    public int getBoard() {
+        return this.board;
+    }
+
+    /**
+     * Returns the player number that makes the next move.
+     *
+     * @return the turn
+     */
+    public int getTurn() {
+        return this.turn;
+    }
+
+    /**
+     * Returns the number of moves played.
+     *
+     * @return the ply of the next move
+     */
+    public int getPly() {
+        return this.ply;
+    }
+
+    /**
+     * Returns the Zobrist hash of the board.
+     *
+     * @return the hash, 0 if unknown
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /**
+     * Returns whether the game is still in play.
+     *
+     * @return true while the game is in play
+     */
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * Sets the game the state belongs to.
+     *
+     * @param eventId the eventId to set
+     */
+    public void setEventId(int eventId) {
+        this.eventId = eventId;
+    }
+
+    /**
+     * Sets the packed board.
+     *
+     * @param board the board to set
+     */
+    public void setBoard(int board) {
+        this.board = board;
+    }
+
+    /**
+     * Sets the player number that makes the next move.
+     *
+     * @param turn the turn to set
+     */
+    public void setTurn(int turn) {
+        this.turn = turn;
+    }
+
+    /**
+     * Sets the number of moves played.
+     *
+     * @param ply the ply to set
+     */
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    /**
+     * Sets the Zobrist hash of the board.
+     *
+     * @param hash the hash to set
+     */
+    public void setHash(long hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * Sets whether the game is still in play.
+     *
+     * @param active the state to set
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
@@ -0,0 +1,92 @@
+package clarkson.ee408.tictactoev4.client;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of {@link ConsistentHashRing}.
+ */
+public class ConsistentHashRingTest {
+
+    private static List<Endpoint> nodes(int count) {
+        List<Endpoint> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(new Endpoint("10.0.0." + (i + 1), 5000));
+        }
+        return nodes;
+    }
+
+    @Test
+    public void locate_returnsNullOnEmptyRing() {
+        ConsistentHashRing ring = new ConsistentHashRing(Collections.<Endpoint>emptyList());
+        assertEquals(0, ring.size());
+        assertNull(ring.locate(42));
+    }
+
+    @Test
+    public void locate_isStableAcrossRings() {
+        List<Endpoint> nodes = nodes(4);
+        ConsistentHashRing first = new ConsistentHashRing(nodes);
+        List<Endpoint> reversed = new ArrayList<>(nodes);
+        Collections.reverse(reversed);
+        ConsistentHashRing second = new ConsistentHashRing(reversed);
+
+        assertEquals(4, first.size());
+        for (int key = 0; key < 10_000; key++) {
+            assertEquals(first.locate(key), second.locate(key));
+        }
+    }
+
+    @Test
+    public void locate_spreadsKeysEvenly() {
+        List<Endpoint> nodes = nodes(4);
+        ConsistentHashRing ring = new ConsistentHashRing(nodes);
+        Map<Endpoint, Integer> counts = new HashMap<>();
+        int keys = 100_000;
+        for (int key = 0; key < keys; key++) {
+            counts.merge(ring.locate(key), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            // 128 virtual nodes keep every node within a generous margin of its fair share
+            assertTrue(counts.toString(), count > keys / 4 / 2 && count < keys / 4 * 2);
+        }
+    }
+
+    @Test
+    public void locate_onlyMovesKeysOfRemovedNode() {
+        List<Endpoint> nodes = nodes(5);
+        ConsistentHashRing before = new ConsistentHashRing(nodes);
+        Endpoint removed = nodes.get(2);
+        List<Endpoint> remaining = new ArrayList<>(nodes);
+        remaining.remove(removed);
+        ConsistentHashRing after = new ConsistentHashRing(remaining);
+
+        for (int key = 0; key < 10_000; key++) {
+            Endpoint owner = before.locate(key);
+            if (!owner.equals(removed)) {
+                assertEquals(owner, after.locate(key));
+            } else {
+                assertNotEquals(removed, after.locate(key));
+            }
+        }
+    }
+
+    @Test
+    public void locate_sendsEveryKeyToTheOnlyNode() {
+        Endpoint only = new Endpoint("game.example.org", 5000);
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList(only));
+        for (int key : new int[]{0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            assertEquals(only, ring.locate(key));
+        }
+    }
+}
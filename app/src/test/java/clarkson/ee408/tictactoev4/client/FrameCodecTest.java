@@ -0,0 +1,205 @@
+package clarkson.ee408.tictactoev4.client;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of {@link FrameCodec}: a writer codec fills a byte array that a reader codec reads back.
+ */
+public class FrameCodecTest {
+
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+
+    private FrameCodec writer(boolean extended) {
+        FrameCodec codec = new FrameCodec(new DataInputStream(new ByteArrayInputStream(new byte[0])),
+                new DataOutputStream(this.sent));
+        if (extended) {
+            codec.useExtendedFraming();
+        }
+        return codec;
+    }
+
+    private FrameCodec reader(boolean extended) {
+        FrameCodec codec = new FrameCodec(new DataInputStream(new ByteArrayInputStream(this.sent.toByteArray())),
+                new DataOutputStream(new ByteArrayOutputStream()));
+        if (extended) {
+            codec.useExtendedFraming();
+        }
+        return codec;
+    }
+
+    private int header() {
+        return ByteBuffer.wrap(this.sent.toByteArray(), 0, 4).getInt();
+    }
+
+    /**
+     * A PairingResponse listing {@code users} players, the largest message the server sends
+     */
+    private static String roster(int users) {
+        StringBuilder json = new StringBuilder("{\"status\":\"SUCCESS\",\"message\":null,\"availableUsers\":[");
+        for (int i = 0; i < users; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"username\":\"player").append(i).append("\",\"password\":null,\"displayName\":\"Player ")
+                    .append(i).append("\",\"online\":true,\"rating\":").append(1200 + i % 400).append('}');
+        }
+        return json.append("],\"invitation\":null,\"invitationResponse\":null}").toString();
+    }
+
+    @Test
+    public void legacy_roundTrip() throws IOException {
+        FrameCodec writer = writer(false);
+        writer.write("{\"type\":\"REQUEST_MOVE\"}");
+        byte[] prepared = "{\"type\":\"PING\"}".getBytes(StandardCharsets.UTF_8);
+        writer.write(prepared, prepared.length);
+
+        FrameCodec reader = reader(false);
+        assertEquals("{\"type\":\"REQUEST_MOVE\"}", reader.read());
+        int length = reader.readFrame();
+        assertEquals("{\"type\":\"PING\"}", new String(reader.getReceiveBuffer(), 0, length, StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IOException.class)
+    public void legacy_rejectsMessagesOver64k() throws IOException {
+        byte[] payload = new byte[0x10000];
+        writer(false).write(payload, payload.length);
+    }
+
+    @Test
+    public void extended_sendsSmallFramesUncompressed() throws IOException {
+        String message = "{\"status\":\"SUCCESS\",\"message\":null,\"move\":4,\"active\":true}";
+        writer(true).write(message);
+
+        int length = message.getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(length, header());
+        assertEquals(4 + length, this.sent.size());
+        assertEquals(message, reader(true).read());
+    }
+
+    @Test
+    public void extended_compressesLargeFrames() throws IOException {
+        String message = roster(5000);
+        int length = message.getBytes(StandardCharsets.UTF_8).length;
+        writer(true).write(message);
+
+        int header = header();
+        assertTrue("compressed flag", header < 0);
+        int compressed = header & 0x7FFFFFFF;
+        assertEquals(4 + compressed, this.sent.size());
+        // Repetitive roster JSON shrinks by an order of magnitude
+        assertTrue(compressed + " of " + length + " bytes", compressed * 10 < length);
+
+        assertEquals(message, reader(true).read());
+    }
+
+    @Test
+    public void extended_sendsIncompressibleFramesAsIs() throws IOException {
+        // Random bytes, deflate can't beat the raw payload
+        byte[] payload = new byte[4096];
+        new Random(42).nextBytes(payload);
+
+        writer(true).write(payload, payload.length);
+
+        assertEquals(payload.length, header());
+        assertEquals(4 + payload.length, this.sent.size());
+        FrameCodec reader = reader(true);
+        assertEquals(payload.length, reader.readFrame());
+        assertArrayEquals(payload, Arrays.copyOf(reader.getReceiveBuffer(), payload.length));
+    }
+
+    @Test
+    public void extended_readsConsecutiveFramesWithOneCodec() throws IOException {
+        FrameCodec writer = writer(true);
+        String[] messages = {roster(10), "{\"move\":1}", roster(300), "", roster(2)};
+        for (String message : messages) {
+            writer.write(message);
+        }
+
+        FrameCodec reader = reader(true);
+        for (String message : messages) {
+            assertEquals(message, reader.read());
+        }
+    }
+
+    @Test
+    public void extended_roundTripsMultiByteCharacters() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("\u00e9l\u00e8ve \u4e2d\u6587 \ud83d\ude00 ");
+        }
+        String message = text.toString();
+        writer(true).write(message);
+        assertEquals(message, reader(true).read());
+    }
+
+    @Test
+    public void extended_rejectsFramesOver16MB() {
+        ByteBuffer frame = ByteBuffer.allocate(4).putInt(16 * 1024 * 1024 + 1);
+        this.sent.write(frame.array(), 0, 4);
+        try {
+            reader(true).readFrame();
+            fail("oversized frame accepted");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("too large"));
+        }
+    }
+
+    @Test
+    public void extended_rejectsCompressedFramesInflatingOver16MB() {
+        // A few kilobytes that inflate to 17 MB of spaces
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setDictionary(FrameCodec.DICTIONARY);
+        byte[] chunk = new byte[1024 * 1024];
+        Arrays.fill(chunk, (byte) ' ');
+        ByteArrayOutputStream bomb = new ByteArrayOutputStream();
+        byte[] out = new byte[64 * 1024];
+        for (int i = 0; i < 17; i++) {
+            deflater.setInput(chunk);
+            while (!deflater.needsInput()) {
+                bomb.write(out, 0, deflater.deflate(out));
+            }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            bomb.write(out, 0, deflater.deflate(out));
+        }
+        deflater.end();
+
+        ByteBuffer header = ByteBuffer.allocate(4).putInt(0x80000000 | bomb.size());
+        this.sent.write(header.array(), 0, 4);
+        this.sent.write(bomb.toByteArray(), 0, bomb.size());
+        try {
+            reader(true).readFrame();
+            fail("oversized inflated frame accepted");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("too large"));
+        }
+    }
+
+    @Test
+    public void extended_rejectsCorruptCompressedFrames() {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        ByteBuffer header = ByteBuffer.allocate(4).putInt(0x80000000 | garbage.length);
+        this.sent.write(header.array(), 0, 4);
+        this.sent.write(garbage, 0, garbage.length);
+        try {
+            reader(true).readFrame();
+            fail("corrupt frame accepted");
+        } catch (IOException expected) {
+            // Corrupt or truncated
+        }
+    }
+}
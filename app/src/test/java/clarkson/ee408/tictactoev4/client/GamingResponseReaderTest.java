@@ -0,0 +1,165 @@
+package clarkson.ee408.tictactoev4.client;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import clarkson.ee408.tictactoev4.socket.GamingResponse;
+import clarkson.ee408.tictactoev4.socket.Request;
+import clarkson.ee408.tictactoev4.socket.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of {@link GamingResponseReader}, including an allocation benchmark of the steady-state poll.
+ */
+public class GamingResponseReaderTest {
+
+    private static boolean read(String json, GamingResponse into) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return GamingResponseReader.read(bytes, bytes.length, into);
+    }
+
+    @Test
+    public void read_extractsEveryField() {
+        GamingResponse response = new GamingResponse();
+        assertTrue(read("{\"status\":\"SUCCESS\",\"message\":null,\"move\":4,\"active\":true,\"eventId\":17,"
+                + "\"ply\":3,\"hash\":-6148914691236517206,\"revision\":2,\"proposal\":\"UNDO_MOVE\"}", response));
+
+        assertEquals(Response.ResponseStatus.SUCCESS, response.getStatus());
+        assertNull(response.getMessage());
+        assertEquals(4, response.getMove());
+        assertTrue(response.isActive());
+        assertEquals(17, response.getEventId());
+        assertEquals(3, response.getPly());
+        assertEquals(-6148914691236517206L, response.getHash());
+        assertEquals(2, response.getRevision());
+        assertEquals(Request.RequestType.UNDO_MOVE, response.getProposal());
+    }
+
+    @Test
+    public void read_resetsMissingFieldsToDefaults() {
+        GamingResponse response = new GamingResponse();
+        assertTrue(read("{\"status\":\"FAILURE\",\"move\":8,\"active\":true,\"eventId\":5,\"ply\":7,"
+                + "\"hash\":99,\"revision\":1,\"proposal\":\"REMATCH\"}", response));
+        assertEquals(Request.RequestType.REMATCH, response.getProposal());
+
+        // The same instance is reused for the next poll
+        assertTrue(read("{}", response));
+        assertNull(response.getStatus());
+        assertEquals(0, response.getMove());
+        assertFalse(response.isActive());
+        assertEquals(0, response.getEventId());
+        assertEquals(-1, response.getPly());
+        assertEquals(0, response.getHash());
+        assertEquals(0, response.getRevision());
+        assertNull(response.getProposal());
+    }
+
+    @Test
+    public void read_parsesNegativeAndExtremeNumbers() {
+        GamingResponse response = new GamingResponse();
+        assertTrue(read("{\"move\":-1,\"ply\":-1,\"hash\":-9223372036854775808}", response));
+        assertEquals(-1, response.getMove());
+        assertEquals(-1, response.getPly());
+        assertEquals(Long.MIN_VALUE, response.getHash());
+
+        assertTrue(read("{\"hash\":9223372036854775807,\"eventId\":2147483647}", response));
+        assertEquals(Long.MAX_VALUE, response.getHash());
+        assertEquals(Integer.MAX_VALUE, response.getEventId());
+    }
+
+    @Test
+    public void read_treatsNullAsDefault() {
+        GamingResponse response = new GamingResponse();
+        assertTrue(read("{\"status\":null,\"move\":null,\"hash\":null,\"proposal\":null,\"active\":null}", response));
+        assertNull(response.getStatus());
+        assertEquals(0, response.getMove());
+        assertEquals(0, response.getHash());
+        assertNull(response.getProposal());
+        assertFalse(response.isActive());
+    }
+
+    @Test
+    public void read_skipsEscapedStringsAndNestedValues() {
+        GamingResponse response = new GamingResponse();
+        assertTrue(read("{\"message\":\"a \\\"move\\\":7, } \\\\\",\"extra\":{\"move\":6,\"list\":[1,{\"b\":\"}]\"}]},"
+                + "\"tags\":[\"move\",[2,3]],\"move\":5}", response));
+        assertEquals(5, response.getMove());
+    }
+
+    @Test
+    public void read_allowsWhitespace() {
+        GamingResponse response = new GamingResponse();
+        assertTrue(read(" {\n\t\"status\" : \"REDIRECT\" ,\r\n \"move\" : 2 , \"active\" : false }", response));
+        assertEquals(Response.ResponseStatus.REDIRECT, response.getStatus());
+        assertEquals(2, response.getMove());
+        assertFalse(response.isActive());
+    }
+
+    @Test
+    public void read_ignoresUnknownEnumValues() {
+        GamingResponse response = new GamingResponse();
+        assertTrue(read("{\"status\":\"MAYBE\",\"proposal\":\"SEND_MOVE\"}", response));
+        assertNull(response.getStatus());
+        assertNull(response.getProposal());
+    }
+
+    @Test
+    public void read_rejectsMalformedJson() {
+        GamingResponse response = new GamingResponse();
+        assertFalse(read("", response));
+        assertFalse(read("[1,2]", response));
+        assertFalse(read("{\"move\":4", response));
+        assertFalse(read("{\"move\" 4}", response));
+        assertFalse(read("{move:4}", response));
+        assertFalse(read("{\"message\":\"unterminated}", response));
+    }
+
+    @Test
+    public void read_onlyLooksAtValidBytes() {
+        byte[] bytes = "{\"move\":3}garbage".getBytes(StandardCharsets.UTF_8);
+        GamingResponse response = new GamingResponse();
+        assertTrue(GamingResponseReader.read(bytes, 10, response));
+        assertEquals(3, response.getMove());
+    }
+
+    /**
+     * Measures the bytes allocated by the steady-state poll: decoding a successful response of an active game
+     * into a reused instance must not allocate at all.
+     */
+    @Test
+    public void read_doesNotAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            // Allocation counters are HotSpot specific
+            return;
+        }
+        com.sun.management.ThreadMXBean hotSpot = (com.sun.management.ThreadMXBean) threads;
+        hotSpot.setThreadAllocatedMemoryEnabled(true);
+
+        byte[] bytes = ("{\"status\":\"SUCCESS\",\"message\":null,\"move\":4,\"active\":true,\"eventId\":17,"
+                + "\"ply\":3,\"hash\":-6148914691236517206,\"revision\":0,\"proposal\":null}")
+                .getBytes(StandardCharsets.UTF_8);
+        GamingResponse response = new GamingResponse();
+        int reads = 100_000;
+
+        // Warm up so the JIT has compiled the reader before measuring
+        for (int i = 0; i < reads; i++) {
+            GamingResponseReader.read(bytes, bytes.length, response);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = hotSpot.getThreadAllocatedBytes(thread);
+        boolean ok = true;
+        for (int i = 0; i < reads; i++) {
+            ok &= GamingResponseReader.read(bytes, bytes.length, response);
+        }
+        long allocated = hotSpot.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(ok);
+        // A single allocation per read would already cost several megabytes; allow for the counter itself
+        assertTrue("allocated " + allocated + " bytes for " + reads + " reads", allocated < 1024);
+    }
+}
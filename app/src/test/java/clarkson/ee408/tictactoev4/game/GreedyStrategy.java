@@ -0,0 +1,79 @@
+package clarkson.ee408.tictactoev4.game;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * Wins when it can, otherwise blocks the opponent's win, otherwise prefers the center, then a corner,
+ * then an edge. Ties within a preference are broken at random.
+ */
+public final class GreedyStrategy implements Strategy {
+
+    private static final int CELLS = TicTacToe.SIDE * TicTacToe.SIDE;
+
+    // Cells by preference: center, corners, edges
+    private static final int[][] PREFERENCE = {{4}, {0, 2, 6, 8}, {1, 3, 5, 7}};
+
+    // Every row, column and diagonal
+    private static final int[][] LINES = {
+            {0, 1, 2}, {3, 4, 5}, {6, 7, 8},
+            {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+            {0, 4, 8}, {2, 4, 6}};
+
+    @Override
+    public String getName() {
+        return "greedy";
+    }
+
+    @Override
+    public int chooseMove(TicTacToe game) {
+        int[] cells = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            cells[cell] = game.getCell(cell / TicTacToe.SIDE, cell % TicTacToe.SIDE);
+        }
+
+        int me = game.getTurn();
+        int win = completing(cells, me);
+        if (win >= 0) {
+            return win;
+        }
+        int block = completing(cells, me == 1 ? 2 : 1);
+        if (block >= 0) {
+            return block;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int[] group : PREFERENCE) {
+            int start = random.nextInt(group.length);
+            for (int k = 0; k < group.length; k++) {
+                int cell = group[(start + k) % group.length];
+                if (cells[cell] == 0) {
+                    return cell;
+                }
+            }
+        }
+        throw new IllegalStateException("No empty cell");
+    }
+
+    /**
+     * @return the empty cell that completes a line of {@code player}, or -1
+     */
+    private static int completing(int[] cells, int player) {
+        for (int[] line : LINES) {
+            int mine = 0;
+            int empty = -1;
+            for (int cell : line) {
+                if (cells[cell] == player) {
+                    mine++;
+                } else if (cells[cell] == 0) {
+                    empty = cell;
+                }
+            }
+            if (mine == 2 && empty >= 0) {
+                return empty;
+            }
+        }
+        return -1;
+    }
+}
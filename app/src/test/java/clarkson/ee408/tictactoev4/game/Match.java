@@ -0,0 +1,43 @@
+package clarkson.ee408.tictactoev4.game;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * Plays complete games between two strategies on a fresh engine, on the calling thread.
+ */
+public final class Match {
+
+    private Match() {
+    }
+
+    /**
+     * Plays one game, {@code x} moves first.
+     *
+     * @param x the strategy of player 1
+     * @param o the strategy of player 2
+     * @return the player number that won, 0 for a tie
+     */
+    public static int play(Strategy x, Strategy o) {
+        return play(new TicTacToe(1), x, o);
+    }
+
+    /**
+     * Plays one game on {@code game}, which is reset first, so a worker thread can reuse its engine.
+     *
+     * @param game the engine to play on
+     * @param x the strategy of player 1
+     * @param o the strategy of player 2
+     * @return the player number that won, 0 for a tie
+     */
+    public static int play(TicTacToe game, Strategy x, Strategy o) {
+        game.resetGame();
+        while (!game.isGameOver()) {
+            Strategy next = game.getTurn() == 1 ? x : o;
+            int cell = next.chooseMove(game);
+            if (game.play(cell / TicTacToe.SIDE, cell % TicTacToe.SIDE) == 0) {
+                throw new IllegalStateException(next.getName() + " played the occupied cell " + cell);
+            }
+        }
+        return game.whoWon();
+    }
+}
@@ -0,0 +1,89 @@
+package clarkson.ee408.tictactoev4.game;
+
+import java.util.Arrays;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * Plays perfectly: never loses, and wins whenever the opponent makes a mistake. The best move of every position is
+ * computed once with negamax and kept in a table indexed by the board read in base 3, so a move is a lookup.
+ */
+public final class PerfectStrategy implements Strategy {
+
+    private static final int CELLS = TicTacToe.SIDE * TicTacToe.SIDE;
+    private static final int POSITIONS = 19683; // 3^9
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+
+    // Best cell and score (from the side to move: 1 win, 0 tie, -1 loss) of every position, built on first use
+    private static final byte[] BEST = new byte[POSITIONS];
+    private static final byte[] SCORE = new byte[POSITIONS];
+
+    static {
+        Arrays.fill(SCORE, UNKNOWN);
+        int[] cells = new int[CELLS];
+        search(cells, 0, 1);
+    }
+
+    @Override
+    public String getName() {
+        return "perfect";
+    }
+
+    @Override
+    public int chooseMove(TicTacToe game) {
+        int key = 0;
+        for (int cell = CELLS - 1; cell >= 0; cell--) {
+            key = key * 3 + game.getCell(cell / TicTacToe.SIDE, cell % TicTacToe.SIDE);
+        }
+        return BEST[key];
+    }
+
+    /**
+     * @return the score of the position for {@code player}, who is to move
+     */
+    private static int search(int[] cells, int key, int player) {
+        if (SCORE[key] != UNKNOWN) {
+            return SCORE[key];
+        }
+
+        int best = -2;
+        int bestCell = -1;
+        int weight = 1;
+        for (int cell = 0; cell < CELLS; cell++, weight *= 3) {
+            if (cells[cell] != 0) {
+                continue;
+            }
+
+            cells[cell] = player;
+            int child = key + weight * player;
+            int score;
+            if (wins(cells, player)) {
+                score = 1;
+            } else {
+                score = -search(cells, child, player == 1 ? 2 : 1);
+            }
+            cells[cell] = 0;
+
+            if (score > best) {
+                best = score;
+                bestCell = cell;
+            }
+        }
+
+        // Full board, nobody won
+        if (bestCell < 0) {
+            best = 0;
+            bestCell = 0;
+        }
+        BEST[key] = (byte) bestCell;
+        SCORE[key] = (byte) best;
+        return best;
+    }
+
+    private static boolean wins(int[] c, int p) {
+        return (c[0] == p && c[1] == p && c[2] == p) || (c[3] == p && c[4] == p && c[5] == p)
+                || (c[6] == p && c[7] == p && c[8] == p) || (c[0] == p && c[3] == p && c[6] == p)
+                || (c[1] == p && c[4] == p && c[7] == p) || (c[2] == p && c[5] == p && c[8] == p)
+                || (c[0] == p && c[4] == p && c[8] == p) || (c[2] == p && c[4] == p && c[6] == p);
+    }
+}
@@ -0,0 +1,29 @@
+package clarkson.ee408.tictactoev4.game;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * Plays a uniformly random empty cell.
+ */
+public final class RandomStrategy implements Strategy {
+
+    @Override
+    public String getName() {
+        return "random";
+    }
+
+    @Override
+    public int chooseMove(TicTacToe game) {
+        int cells = TicTacToe.SIDE * TicTacToe.SIDE;
+        int[] empty = new int[cells];
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (game.getCell(cell / TicTacToe.SIDE, cell % TicTacToe.SIDE) == 0) {
+                empty[count++] = cell;
+            }
+        }
+        return empty[ThreadLocalRandom.current().nextInt(count)];
+    }
+}
@@ -0,0 +1,152 @@
+package clarkson.ee408.tictactoev4.game;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of {@link RuleEngine}.
+ */
+public class RuleEngineTest {
+
+    /**
+     * Packs a board written row by row, X for player 1, O for player 2 and . for an empty cell
+     */
+    private static int board(String cells) {
+        int board = 0;
+        for (int cell = 0; cell < cells.length(); cell++) {
+            char mark = cells.charAt(cell);
+            if (mark != '.') {
+                board = RuleEngine.apply(board, cell, mark == 'X' ? 1 : 2);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    public void validate_acceptsLegalMoves() {
+        assertEquals(RuleEngine.OK, RuleEngine.validate(0, 4, 1, 0));
+        assertEquals(RuleEngine.OK, RuleEngine.validate(board("....X...."), 0, 2, 1));
+        assertEquals(RuleEngine.OK, RuleEngine.validate(board("O...X...."), 8, 1, RuleEngine.ANY_PLY));
+    }
+
+    @Test
+    public void validate_rejectsCellsOffTheBoard() {
+        assertEquals(RuleEngine.OUT_OF_RANGE, RuleEngine.validate(0, -1, 1, 0));
+        assertEquals(RuleEngine.OUT_OF_RANGE, RuleEngine.validate(0, 9, 1, 0));
+    }
+
+    @Test
+    public void validate_rejectsOccupiedCells() {
+        assertEquals(RuleEngine.OCCUPIED, RuleEngine.validate(board("....X...."), 4, 2, 1));
+    }
+
+    @Test
+    public void validate_rejectsWrongTurn() {
+        assertEquals(RuleEngine.WRONG_TURN, RuleEngine.validate(0, 0, 2, 0));
+        assertEquals(RuleEngine.WRONG_TURN, RuleEngine.validate(board("....X...."), 0, 1, 1));
+    }
+
+    @Test
+    public void validate_rejectsMovesAfterGameOver() {
+        // X won on the top row
+        assertEquals(RuleEngine.GAME_OVER, RuleEngine.validate(board("XXXOO...."), 8, 2, 5));
+        // Full board without a winner
+        assertEquals(RuleEngine.GAME_OVER, RuleEngine.validate(board("XOXXOOOXX"), 0, 2, RuleEngine.ANY_PLY));
+    }
+
+    @Test
+    public void validate_reportsStaleAndMissedMoves() {
+        int board = board("X...O....");
+        assertEquals(RuleEngine.STALE, RuleEngine.validate(board, 8, 1, 1));
+        assertEquals(RuleEngine.STALE, RuleEngine.validate(board, 4, 2, 1));
+        assertEquals(RuleEngine.OUT_OF_SEQUENCE, RuleEngine.validate(board, 8, 1, 3));
+        // The sequence is checked before the board, a repeated move is stale rather than occupied
+        assertEquals(RuleEngine.STALE, RuleEngine.validate(board("XXXOO...."), 4, 2, 4));
+    }
+
+    @Test
+    public void plies_andTurn_followTheBoard() {
+        assertEquals(0, RuleEngine.plies(0));
+        assertEquals(1, RuleEngine.turn(0));
+        assertEquals(3, RuleEngine.plies(board("X.O...X..")));
+        assertEquals(2, RuleEngine.turn(board("X.O...X..")));
+        assertEquals(9, RuleEngine.plies(board("XOXXOOOXX")));
+    }
+
+    @Test
+    public void winner_checksEveryLine() {
+        assertEquals(0, RuleEngine.winner(0));
+        assertEquals(1, RuleEngine.winner(board("XXXOO....")));
+        assertEquals(2, RuleEngine.winner(board("XXO.O.OX.")));
+        assertEquals(1, RuleEngine.winner(board("XO.XO.X..")));
+        assertEquals(2, RuleEngine.winner(board("XXO.XO..O")));
+        assertEquals(1, RuleEngine.winner(board("XOOOX...X")));
+        assertEquals(0, RuleEngine.winner(board("XOXXOOOXX")));
+    }
+
+    @Test
+    public void isValid_acceptsReachableCounts() {
+        assertTrue(RuleEngine.isValid(0));
+        assertTrue(RuleEngine.isValid(board("X........")));
+        assertTrue(RuleEngine.isValid(board("XO.......")));
+        assertTrue(RuleEngine.isValid(board("XOXXOOOXX")));
+    }
+
+    @Test
+    public void isValid_rejectsMalformedBoards() {
+        // A cell holding 3
+        assertFalse(RuleEngine.isValid(0x3));
+        assertFalse(RuleEngine.isValid(0x3 << 16 | board("XO.......")));
+        // Bits past the last cell
+        assertFalse(RuleEngine.isValid(1 << 18));
+        assertFalse(RuleEngine.isValid(-1));
+        // O ahead of X, or X two moves ahead
+        assertFalse(RuleEngine.isValid(board("O........")));
+        assertFalse(RuleEngine.isValid(board("XX.......")));
+        assertFalse(RuleEngine.isValid(board("XXXO.....")));
+    }
+
+    @Test
+    public void describe_namesEveryCode() {
+        assertEquals("OK", RuleEngine.describe(RuleEngine.OK));
+        assertEquals("OUT_OF_RANGE", RuleEngine.describe(RuleEngine.OUT_OF_RANGE));
+        assertEquals("OCCUPIED", RuleEngine.describe(RuleEngine.OCCUPIED));
+        assertEquals("WRONG_TURN", RuleEngine.describe(RuleEngine.WRONG_TURN));
+        assertEquals("GAME_OVER", RuleEngine.describe(RuleEngine.GAME_OVER));
+        assertEquals("STALE", RuleEngine.describe(RuleEngine.STALE));
+        assertEquals("OUT_OF_SEQUENCE", RuleEngine.describe(RuleEngine.OUT_OF_SEQUENCE));
+        assertEquals("UNKNOWN(42)", RuleEngine.describe(42));
+    }
+
+    @Test
+    public void validate_agreesWithTheEngineOverRandomGames() {
+        Random random = new Random(3);
+        TicTacToe game = new TicTacToe(1);
+        for (int n = 0; n < 2000; n++) {
+            game.resetGame();
+            int board = 0;
+            int ply = 0;
+            while (!game.isGameOver()) {
+                int cell = random.nextInt(9);
+                int player = game.getTurn();
+                int code = RuleEngine.validate(board, cell, player, ply);
+                boolean played = game.play(cell / TicTacToe.SIDE, cell % TicTacToe.SIDE) != 0;
+
+                assertEquals(code == RuleEngine.OK, played);
+                if (played) {
+                    board = RuleEngine.apply(board, cell, player);
+                    ply++;
+                    assertEquals(game.getBoard(), board);
+                    assertTrue(RuleEngine.isValid(board));
+                }
+            }
+            assertEquals(game.whoWon(), RuleEngine.winner(board));
+            assertEquals(RuleEngine.GAME_OVER, RuleEngine.validate(board, 0, RuleEngine.turn(board), ply));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package clarkson.ee408.tictactoev4.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * Headless self-play between strategies, for tuning them and as a throughput benchmark of the engine, see
+ * {@link SelfPlayTest}.
+ * Every ordered pair of strategies (so both play X against each other) plays its games on a parallel stream; each
+ * worker thread reuses its own engine and outcomes are counted in {@link LongAdder}s.
+ */
+public final class SelfPlay {
+
+    // One engine per worker thread, games only reset it
+    private static final ThreadLocal<TicTacToe> ENGINE = ThreadLocal.withInitial(() -> new TicTacToe(1));
+
+    private final List<Strategy> strategies;
+
+    /**
+     * Creates a new instance of {@code SelfPlay}.
+     *
+     * @param strategies the strategies to pit against each other, and against themselves
+     */
+    public SelfPlay(List<Strategy> strategies) {
+        this.strategies = new ArrayList<>(strategies);
+    }
+
+    /**
+     * Plays {@code games} games for every ordered pair of strategies.
+     *
+     * @param games the number of games per ordered pair
+     * @return the outcome of every pair and the throughput
+     */
+    public Report run(long games) {
+        int n = this.strategies.size();
+        List<Result> results = new ArrayList<>(n * n);
+
+        long start = System.nanoTime();
+        for (Strategy x : this.strategies) {
+            for (Strategy o : this.strategies) {
+                Result result = new Result(x.getName(), o.getName());
+                LongStream.range(0, games).parallel()
+                        .forEach(game -> result.record(Match.play(ENGINE.get(), x, o)));
+                results.add(result);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new Report(results, elapsed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Outcomes of the games of one ordered pair
+     */
+    public static final class Result {
+
+        private final String x;
+        private final String o;
+        private final LongAdder xWins = new LongAdder();
+        private final LongAdder oWins = new LongAdder();
+        private final LongAdder draws = new LongAdder();
+
+        Result(String x, String o) {
+            this.x = x;
+            this.o = o;
+        }
+
+        void record(int winner) {
+            if (winner == 1) {
+                this.xWins.increment();
+            } else if (winner == 2) {
+                this.oWins.increment();
+            } else {
+                this.draws.increment();
+            }
+        }
+
+        public String getX() {
+            return this.x;
+        }
+
+        public String getO() {
+            return this.o;
+        }
+
+        public long getXWins() {
+            return this.xWins.sum();
+        }
+
+        public long getOWins() {
+            return this.oWins.sum();
+        }
+
+        public long getDraws() {
+            return this.draws.sum();
+        }
+
+        public long getGames() {
+            return getXWins() + getOWins() + getDraws();
+        }
+    }
+
+    /**
+     * Outcomes of a {@link #run(long)} and its throughput
+     */
+    public static final class Report {
+
+        private final List<Result> results;
+        private final long elapsedNanos;
+        private final int cores;
+
+        Report(List<Result> results, long elapsedNanos, int cores) {
+            this.results = results;
+            this.elapsedNanos = elapsedNanos;
+            this.cores = cores;
+        }
+
+        public List<Result> getResults() {
+            return this.results;
+        }
+
+        public long getGames() {
+            long games = 0;
+            for (Result result : this.results) {
+                games += result.getGames();
+            }
+            return games;
+        }
+
+        public double getGamesPerSecond() {
+            return getGames() * 1e9 / this.elapsedNanos;
+        }
+
+        public double getGamesPerSecondPerCore() {
+            return getGamesPerSecond() / this.cores;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder(String.format(Locale.US, "%-10s %-10s %8s %8s %8s%n",
+                    "X", "O", "X win", "draw", "O win"));
+            for (Result result : this.results) {
+                double games = Math.max(1, result.getGames());
+                report.append(String.format(Locale.US, "%-10s %-10s %7.2f%% %7.2f%% %7.2f%%%n",
+                        result.getX(), result.getO(), 100 * result.getXWins() / games,
+                        100 * result.getDraws() / games, 100 * result.getOWins() / games));
+            }
+            report.append(String.format(Locale.US, "%,d games in %.2f s, %,.0f games/s, %,.0f games/s/core (%d cores)",
+                    getGames(), this.elapsedNanos / 1e9, getGamesPerSecond(), getGamesPerSecondPerCore(), this.cores));
+            return report.toString();
+        }
+    }
+}
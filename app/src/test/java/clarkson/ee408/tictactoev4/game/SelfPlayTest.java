@@ -0,0 +1,64 @@
+package clarkson.ee408.tictactoev4.game;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the strategies, played against each other by {@link SelfPlay}.
+ */
+public class SelfPlayTest {
+
+    private static final long GAMES = 20_000;
+
+    @Test
+    public void perfectStrategy_neverLoses() {
+        SelfPlay selfPlay = new SelfPlay(Arrays.asList(new RandomStrategy(), new GreedyStrategy(), new PerfectStrategy()));
+        SelfPlay.Report report = selfPlay.run(GAMES);
+
+        assertEquals(9 * GAMES, report.getGames());
+        for (SelfPlay.Result result : report.getResults()) {
+            assertEquals(GAMES, result.getGames());
+            if (result.getX().equals("perfect")) {
+                assertEquals(result.getO() + " beat perfect as O", 0, result.getOWins());
+            }
+            if (result.getO().equals("perfect")) {
+                assertEquals(result.getX() + " beat perfect as X", 0, result.getXWins());
+            }
+        }
+    }
+
+    @Test
+    public void perfectStrategy_drawsAgainstItself() {
+        SelfPlay.Report report = new SelfPlay(Arrays.asList(new PerfectStrategy())).run(1000);
+
+        SelfPlay.Result result = report.getResults().get(0);
+        assertEquals(1000, result.getDraws());
+    }
+
+    @Test
+    public void perfectStrategy_beatsRandomPlay() {
+        SelfPlay.Report report = new SelfPlay(Arrays.asList(new PerfectStrategy(), new RandomStrategy())).run(GAMES);
+
+        for (SelfPlay.Result result : report.getResults()) {
+            if (result.getX().equals("perfect") && result.getO().equals("random")) {
+                assertTrue(result.getXWins() > result.getGames() / 2);
+            }
+        }
+    }
+
+    @Test
+    public void run_reportsThroughput() {
+        SelfPlay selfPlay = new SelfPlay(Arrays.asList(new RandomStrategy(), new GreedyStrategy(), new PerfectStrategy()));
+        // The first run warms up the JIT
+        selfPlay.run(GAMES / 10);
+        SelfPlay.Report report = selfPlay.run(GAMES);
+
+        // Wall-clock throughput depends on the machine, it is printed for comparison but never fails the build
+        System.out.println(report);
+        assertEquals(9 * GAMES, report.getGames());
+        assertTrue(report.getGamesPerSecondPerCore() > 0);
+    }
+}
@@ -0,0 +1,150 @@
+package clarkson.ee408.tictactoev4.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of a {@link Tournament}, per entrant index. Counters are {@link LongAdder}s so the games of every worker
+ * thread can record their outcome without contending on a shared counter.
+ */
+public final class Standings {
+
+    /**
+     * Value of {@link #getEliminatedIn(int)} for the winner and for round-robin entrants
+     */
+    public static final int NOT_ELIMINATED = -1;
+
+    private final LongAdder[] wins;
+    private final LongAdder[] draws;
+    private final LongAdder[] losses;
+    private final int[] eliminatedIn;
+    private int champion = -1;
+
+    Standings(int entrants) {
+        this.wins = adders(entrants);
+        this.draws = adders(entrants);
+        this.losses = adders(entrants);
+        this.eliminatedIn = new int[entrants];
+        Arrays.fill(this.eliminatedIn, NOT_ELIMINATED);
+    }
+
+    /**
+     * Records the outcome of one game.
+     *
+     * @param x the entrant that played X
+     * @param o the entrant that played O
+     * @param winner the player number that won, 0 for a tie
+     */
+    void record(int x, int o, int winner) {
+        if (winner == 1) {
+            this.wins[x].increment();
+            this.losses[o].increment();
+        } else if (winner == 2) {
+            this.wins[o].increment();
+            this.losses[x].increment();
+        } else {
+            this.draws[x].increment();
+            this.draws[o].increment();
+        }
+    }
+
+    void eliminate(int entrant, int round) {
+        // Each entrant is eliminated by exactly one task, joining the round publishes it
+        this.eliminatedIn[entrant] = round;
+    }
+
+    void setChampion(int champion) {
+        this.champion = champion;
+    }
+
+    /**
+     * Returns the number of entrants.
+     *
+     * @return the size of the standings
+     */
+    public int size() {
+        return this.wins.length;
+    }
+
+    public long getWins(int entrant) {
+        return this.wins[entrant].sum();
+    }
+
+    public long getDraws(int entrant) {
+        return this.draws[entrant].sum();
+    }
+
+    public long getLosses(int entrant) {
+        return this.losses[entrant].sum();
+    }
+
+    /**
+     * Returns two points per win and one per draw.
+     *
+     * @param entrant the entrant index
+     * @return the points
+     */
+    public long getPoints(int entrant) {
+        return 2 * getWins(entrant) + getDraws(entrant);
+    }
+
+    /**
+     * Returns the round an entrant lost in a single-elimination bracket, 0 for the first round.
+     *
+     * @param entrant the entrant index
+     * @return the round, or {@link #NOT_ELIMINATED}
+     */
+    public int getEliminatedIn(int entrant) {
+        return this.eliminatedIn[entrant];
+    }
+
+    /**
+     * Returns the winner of a single-elimination bracket.
+     *
+     * @return the entrant index, -1 for a round robin
+     */
+    public int getChampion() {
+        return this.champion;
+    }
+
+    /**
+     * Returns the total number of games played.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+        long results = 0;
+        for (int i = 0; i < size(); i++) {
+            results += getWins(i) + getDraws(i) + getLosses(i);
+        }
+        // Every game has two participants
+        return results / 2;
+    }
+
+    /**
+     * Returns the entrants by points, best first. Call after the tournament finished, it sums every counter once.
+     *
+     * @return the entrant indexes in ranking order
+     */
+    public List<Integer> ranking() {
+        long[] points = new long[size()];
+        List<Integer> order = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            points[i] = getPoints(i);
+            order.add(i);
+        }
+        Collections.sort(order, (a, b) -> Long.compare(points[b], points[a]));
+        return order;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,25 @@
+package clarkson.ee408.tictactoev4.game;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * Picks the moves of a computer player. Implementations must be stateless or thread safe, one instance plays
+ * many games at once on the tournament and self-play pools.
+ */
+public interface Strategy {
+
+    /**
+     * Returns a short name for reports.
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Chooses the next move for the player whose turn it is, see {@link TicTacToe#getTurn()}.
+     *
+     * @param game the game in progress, must not be modified
+     * @return the cell to play, {@code row * SIDE + col}, must be empty
+     */
+    int chooseMove(TicTacToe game);
+}
@@ -0,0 +1,250 @@
+package clarkson.ee408.tictactoev4.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+/**
+ * Runs round-robin or single-elimination tournaments between computer players on a {@link ForkJoinPool}.
+ * Games are independent, so they are split into fork-join tasks and every worker plays its share on its own
+ * engine; outcomes go straight into the lock-free counters of {@link Standings}. Throughput grows with the number
+ * of cores until the pool is saturated: a 10,000-entrant single-elimination bracket is 9,999 matches.
+ */
+public final class Tournament {
+
+    /**
+     * Games a task plays itself instead of splitting further
+     */
+    private static final int GAMES_PER_TASK = 2048;
+
+    /**
+     * Tied single-elimination matches are replayed this many times (alternating X) before the better seed advances
+     */
+    private static final int MAX_REPLAYS = 5;
+
+    private final List<Entrant> entrants;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a new instance of {@code Tournament} on the common pool.
+     *
+     * @param entrants the entrants, in seeding order (best first)
+     */
+    public Tournament(List<Entrant> entrants) {
+        this(entrants, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new instance of {@code Tournament}.
+     *
+     * @param entrants the entrants, in seeding order (best first)
+     * @param pool the pool the games run on
+     */
+    public Tournament(List<Entrant> entrants, ForkJoinPool pool) {
+        this.entrants = Collections.unmodifiableList(new ArrayList<>(entrants));
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the entrants, in seeding order.
+     *
+     * @return the entrants
+     */
+    public List<Entrant> getEntrants() {
+        return this.entrants;
+    }
+
+    /**
+     * Every entrant plays every other entrant {@code gamesPerPairing} times, alternating who plays X.
+     *
+     * @param gamesPerPairing the number of games per pair of entrants
+     * @return the standings
+     */
+    public Standings roundRobin(int gamesPerPairing) {
+        Standings standings = new Standings(this.entrants.size());
+        this.pool.invoke(new RoundRobinTask(standings, gamesPerPairing, 0, this.entrants.size()));
+        return standings;
+    }
+
+    /**
+     * Runs a single-elimination bracket. The best remaining seed meets the worst one; entrants without an opponent
+     * in a round advance on a bye.
+     *
+     * @return the standings, with the champion and the round every other entrant lost in
+     */
+    public Standings singleElimination() {
+        Standings standings = new Standings(this.entrants.size());
+        if (this.entrants.isEmpty()) {
+            return standings;
+        }
+
+        int[] remaining = new int[this.entrants.size()];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = i;
+        }
+
+        for (int round = 0; remaining.length > 1; round++) {
+            int[] advancing = new int[(remaining.length + 1) / 2];
+            this.pool.invoke(new RoundTask(standings, remaining, advancing, round, 0, advancing.length));
+            remaining = advancing;
+        }
+        standings.setChampion(remaining[0]);
+        return standings;
+    }
+
+    /**
+     * Plays one single-elimination match.
+     *
+     * @return the entrant that advances
+     */
+    private int playMatch(TicTacToe game, Standings standings, int high, int low) {
+        Strategy highStrategy = this.entrants.get(high).getStrategy();
+        Strategy lowStrategy = this.entrants.get(low).getStrategy();
+
+        for (int replay = 0; replay <= MAX_REPLAYS; replay++) {
+            boolean highIsX = replay % 2 == 0;
+            int winner = highIsX
+                    ? Match.play(game, highStrategy, lowStrategy)
+                    : Match.play(game, lowStrategy, highStrategy);
+            standings.record(highIsX ? high : low, highIsX ? low : high, winner);
+
+            if (winner != 0) {
+                return (winner == 1) == highIsX ? high : low;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Plays every pairing of the rows {@code [from, to)} against the entrants after them
+     */
+    private final class RoundRobinTask extends RecursiveAction {
+
+        private final Standings standings;
+        private final int gamesPerPairing;
+        private final int from;
+        private final int to;
+
+        RoundRobinTask(Standings standings, int gamesPerPairing, int from, int to) {
+            this.standings = standings;
+            this.gamesPerPairing = gamesPerPairing;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int n = entrants.size();
+            // Row i plays n - 1 - i pairings, so sum the work instead of counting rows
+            long games = 0;
+            for (int i = this.from; i < this.to; i++) {
+                games += (long) (n - 1 - i) * this.gamesPerPairing;
+            }
+
+            if (this.to - this.from > 1 && games > GAMES_PER_TASK) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new RoundRobinTask(this.standings, this.gamesPerPairing, this.from, middle),
+                        new RoundRobinTask(this.standings, this.gamesPerPairing, middle, this.to));
+                return;
+            }
+
+            TicTacToe game = new TicTacToe(1);
+            for (int i = this.from; i < this.to; i++) {
+                Strategy first = entrants.get(i).getStrategy();
+                for (int j = i + 1; j < n; j++) {
+                    Strategy second = entrants.get(j).getStrategy();
+                    for (int k = 0; k < this.gamesPerPairing; k++) {
+                        if (k % 2 == 0) {
+                            this.standings.record(i, j, Match.play(game, first, second));
+                        } else {
+                            this.standings.record(j, i, Match.play(game, second, first));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays the matches {@code [from, to)} of one single-elimination round
+     */
+    private final class RoundTask extends RecursiveAction {
+
+        // Matches are short, a task plays a batch of them
+        private static final int MATCHES_PER_TASK = 64;
+
+        private final Standings standings;
+        private final int[] remaining;
+        private final int[] advancing;
+        private final int round;
+        private final int from;
+        private final int to;
+
+        RoundTask(Standings standings, int[] remaining, int[] advancing, int round, int from, int to) {
+            this.standings = standings;
+            this.remaining = remaining;
+            this.advancing = advancing;
+            this.round = round;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > MATCHES_PER_TASK) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new RoundTask(this.standings, this.remaining, this.advancing, this.round, this.from, middle),
+                        new RoundTask(this.standings, this.remaining, this.advancing, this.round, middle, this.to));
+                return;
+            }
+
+            TicTacToe game = new TicTacToe(1);
+            for (int match = this.from; match < this.to; match++) {
+                int high = this.remaining[match];
+                int lowSlot = this.remaining.length - 1 - match;
+                if (lowSlot == match) {
+                    // Odd number left, the middle seed has a bye
+                    this.advancing[match] = high;
+                    continue;
+                }
+
+                int low = this.remaining[lowSlot];
+                int winner = playMatch(game, this.standings, high, low);
+                this.advancing[match] = winner;
+                this.standings.eliminate(winner == high ? low : high, this.round);
+            }
+        }
+    }
+
+    /**
+     * A player taking part in a tournament
+     */
+    public static final class Entrant {
+
+        private final String name;
+        private final Strategy strategy;
+
+        /**
+         * Creates a new instance of {@code Entrant}.
+         *
+         * @param name the name shown in the standings
+         * @param strategy the strategy playing for this entrant
+         */
+        public Entrant(String name, Strategy strategy) {
+            this.name = name;
+            this.strategy = strategy;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Strategy getStrategy() {
+            return this.strategy;
+        }
+    }
+}
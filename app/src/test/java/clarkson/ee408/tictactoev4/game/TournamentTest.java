@@ -0,0 +1,74 @@
+package clarkson.ee408.tictactoev4.game;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of {@link Tournament} and its {@link Standings}.
+ */
+public class TournamentTest {
+
+    private static List<Tournament.Entrant> entrants(int count) {
+        List<Tournament.Entrant> entrants = new ArrayList<>(count);
+        entrants.add(new Tournament.Entrant("perfect", new PerfectStrategy()));
+        for (int i = 1; i < count; i++) {
+            Strategy strategy = i % 2 == 0 ? new GreedyStrategy() : new RandomStrategy();
+            entrants.add(new Tournament.Entrant(strategy.getName() + i, strategy));
+        }
+        return entrants;
+    }
+
+    @Test
+    public void roundRobin_playsEveryPairing() {
+        int count = 50;
+        Standings standings = new Tournament(entrants(count)).roundRobin(4);
+
+        assertEquals((long) count * (count - 1) / 2 * 4, standings.getGames());
+        for (int i = 0; i < count; i++) {
+            assertEquals(4L * (count - 1), standings.getWins(i) + standings.getDraws(i) + standings.getLosses(i));
+            assertEquals(Standings.NOT_ELIMINATED, standings.getEliminatedIn(i));
+        }
+        assertEquals(-1, standings.getChampion());
+        assertEquals(0, standings.getLosses(0));
+
+        List<Integer> ranking = standings.ranking();
+        assertEquals(count, ranking.size());
+        for (int i = 1; i < count; i++) {
+            assertTrue(standings.getPoints(ranking.get(i - 1)) >= standings.getPoints(ranking.get(i)));
+        }
+    }
+
+    @Test
+    public void singleElimination_leavesOneChampion() {
+        int count = 10_000;
+        Standings standings = new Tournament(entrants(count)).singleElimination();
+
+        // The top seed never loses and wins ties, so it must take the bracket
+        assertEquals(0, standings.getChampion());
+        assertEquals(0, standings.getLosses(0));
+        assertEquals(Standings.NOT_ELIMINATED, standings.getEliminatedIn(0));
+
+        // 14 rounds for 10,000 entrants, everyone else lost in one of them
+        for (int i = 1; i < count; i++) {
+            int round = standings.getEliminatedIn(i);
+            assertTrue("entrant " + i + " eliminated in " + round, round >= 0 && round < 14);
+        }
+        // 9,999 matches, plus the replays of tied ones
+        assertTrue(standings.getGames() >= count - 1);
+    }
+
+    @Test
+    public void singleElimination_handlesTinyBrackets() {
+        assertEquals(-1, new Tournament(entrants(0).subList(0, 0)).singleElimination().getChampion());
+        assertEquals(0, new Tournament(entrants(1)).singleElimination().getChampion());
+
+        Standings three = new Tournament(entrants(3)).singleElimination();
+        assertEquals(0, three.getChampion());
+        // The middle seed had a bye in the first round
+        assertEquals(1, three.getEliminatedIn(1));
+    }
+}
@@ -0,0 +1,91 @@
+package clarkson.ee408.tictactoev4.game;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import clarkson.ee408.tictactoev4.TicTacToe;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of {@link Zobrist} and of the hash {@link TicTacToe} keeps up to date.
+ */
+public class ZobristTest {
+
+    /**
+     * The first 18 outputs of SplitMix64 seeded with {@link Zobrist#SEED}, in {@code KEYS[2 * cell + mark - 1]}
+     * order. A server port must produce the same table.
+     */
+    private static final long[] EXPECTED_KEYS = {
+            0x4FC8_3193_2612_D6AFL, 0x813E_BDF6_F3E6_6776L,
+            0x6E2A_F6F5_46E7_7003L, 0x05B4_3747_2F0F_1888L,
+            0xBA5A_AD4A_3921_474DL, 0xF6FF_A69B_36B4_273FL,
+            0xDCA4_B832_5E79_D8C8L, 0xB373_D7BE_9BD4_8D9CL,
+            0x8DEE_F565_17C4_0F68L, 0x42A4_2D1C_C96B_0057L,
+            0x1341_7FF7_22F7_A58EL, 0x5EDB_DD27_90C6_24BCL,
+            0xE8E6_E1D8_249D_569BL, 0xC0D8_9925_00A1_5907L,
+            0xADBB_7645_52D8_718AL, 0xB736_D31D_CF1D_C5F4L,
+            0xD1B8_610D_D09F_3CE2L, 0xF4D5_FE85_5E90_EB6AL};
+
+    @Test
+    public void key_matchesSplitMix64Vectors() {
+        for (int cell = 0; cell < TicTacToe.SIDE * TicTacToe.SIDE; cell++) {
+            for (int mark = 1; mark <= 2; mark++) {
+                assertEquals("cell " + cell + " mark " + mark, EXPECTED_KEYS[2 * cell + mark - 1], Zobrist.key(cell, mark));
+            }
+        }
+    }
+
+    @Test
+    public void key_isUniqueAndNonZero() {
+        Set<Long> keys = new HashSet<>();
+        for (long key : EXPECTED_KEYS) {
+            assertNotEquals(0, key);
+            assertTrue(keys.add(key));
+        }
+    }
+
+    @Test
+    public void hash_xorsTheKeysOfEveryMark() {
+        assertEquals(0, Zobrist.hash(0));
+
+        // X in the center, O in the top left corner
+        int board = RuleEngine.apply(RuleEngine.apply(0, 4, 1), 0, 2);
+        assertEquals(0x8DEE_F565_17C4_0F68L ^ 0x813E_BDF6_F3E6_6776L, Zobrist.hash(board));
+    }
+
+    @Test
+    public void incrementalHash_matchesFullRehash() {
+        Random random = new Random(11);
+        TicTacToe game = new TicTacToe(1);
+        for (int n = 0; n < 10_000; n++) {
+            game.resetGame();
+            assertEquals(0, game.getHash());
+
+            while (!game.isGameOver()) {
+                int action = random.nextInt(10);
+                if (action == 0) {
+                    game.undo();
+                } else if (action == 1) {
+                    game.redo();
+                } else if (action == 2) {
+                    // Resync to the same position, as GameSession does with the server's board
+                    game.restore(game.getBoard());
+                } else {
+                    int cell = random.nextInt(9);
+                    game.play(cell / TicTacToe.SIDE, cell % TicTacToe.SIDE);
+                }
+                assertEquals(Zobrist.hash(game.getBoard()), game.getHash());
+                assertEquals(game.getHash(), game.snapshot().getHash());
+            }
+
+            // Taking back a whole game returns to the empty board
+            while (game.undo()) {
+                assertEquals(Zobrist.hash(game.getBoard()), game.getHash());
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package clarkson.ee408.tictactoev4.rating;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of {@link RankIndex}.
+ */
+public class RankIndexTest {
+
+    @Test
+    public void rank_isOneWhenEmpty() {
+        RankIndex index = new RankIndex();
+        assertEquals(0, index.size());
+        assertEquals(1, index.rank(1200));
+    }
+
+    @Test
+    public void rank_countsPlayersRatedHigher() {
+        RankIndex index = new RankIndex();
+        index.add(1500);
+        index.add(1200);
+        index.add(1350);
+
+        assertEquals(3, index.size());
+        assertEquals(1, index.rank(1500));
+        assertEquals(2, index.rank(1350));
+        assertEquals(3, index.rank(1200));
+        assertEquals(4, index.rank(1000));
+    }
+
+    @Test
+    public void rank_sharedByEqualRoundedRatings() {
+        RankIndex index = new RankIndex();
+        index.add(1600);
+        index.add(1400.2);
+        index.add(1399.6);
+
+        assertEquals(2, index.rank(1400));
+        assertEquals(2, index.rank(1399.8));
+    }
+
+    @Test
+    public void remove_undoesAdd() {
+        RankIndex index = new RankIndex();
+        index.add(1500);
+        index.add(1700);
+        index.remove(1700);
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.rank(1500));
+    }
+
+    @Test
+    public void add_clampsOutOfRangeRatings() {
+        RankIndex index = new RankIndex();
+        index.add(-50);
+        index.add(RankIndex.MAX_RATING + 1000);
+
+        assertEquals(1, index.rank(RankIndex.MAX_RATING));
+        assertEquals(1, index.rank(RankIndex.MAX_RATING + 1));
+        assertEquals(2, index.rank(0));
+        assertEquals(2, index.rank(-1));
+    }
+
+    @Test
+    public void rank_matchesLinearScan() {
+        Random random = new Random(7);
+        RankIndex index = new RankIndex();
+        List<Long> ratings = new ArrayList<>();
+
+        for (int step = 0; step < 5000; step++) {
+            if (!ratings.isEmpty() && random.nextInt(3) == 0) {
+                long rating = ratings.remove(random.nextInt(ratings.size()));
+                index.remove(rating);
+            } else {
+                long rating = 800 + random.nextInt(1600);
+                ratings.add(rating);
+                index.add(rating);
+            }
+
+            long probe = 800 + random.nextInt(1600);
+            int higher = 0;
+            for (long rating : ratings) {
+                if (rating > probe) {
+                    higher++;
+                }
+            }
+            assertEquals(higher + 1, index.rank(probe));
+            assertEquals(ratings.size(), index.size());
+        }
+    }
+}